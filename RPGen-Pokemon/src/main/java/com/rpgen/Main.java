@@ -1,6 +1,7 @@
 package com.rpgen;
 
 import com.rpgen.pokemon.web.PokemonBattleServer;
+import com.rpgen.pokemon.web.PokemonBattleSocket;
 import com.rpgen.pokemon.web.PokemonConfigServer;
 import com.rpgen.pokemon.web.PokemonServer;
 import com.rpgen.chrono.web.ChronoBattleServer;
@@ -15,6 +16,9 @@ public class Main {
         
         // Configurar el directorio de archivos estáticos
         Spark.staticFiles.location("/public");
+
+        // Spark exige registrar los WebSocket antes que cualquier ruta HTTP
+        Spark.webSocket("/ws/pokemon-battle", PokemonBattleSocket.class);
         
         // Inicializar los servidores
         System.out.println("Iniciando servidores...");
@@ -65,5 +69,6 @@ public class Main {
         System.out.println("  - /api/pokemon/:id/abilities");
         System.out.println("  - /api/pokemon/:id/configure");
         System.out.println("  - /api/pokemon/:id/stats");
+        System.out.println("  - ws /ws/pokemon-battle");
     }
 } 
\ No newline at end of file
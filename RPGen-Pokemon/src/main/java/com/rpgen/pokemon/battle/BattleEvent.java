@@ -0,0 +1,117 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.PokemonMove;
+
+// Suceso de un combate tal como lo emite PokemonBattleEngine a sus PokemonBattleListener. El motor crea uno
+// por emisión, y solo si hay oyentes; no cambia después de emitirse, así que se puede guardar tal cual
+public final class BattleEvent {
+    public enum Type {
+        // source usa move contra target
+        MOVE_USED,
+        // target pierde amount puntos de vida por el move de source; effectiveness es el multiplicador de tipos
+        DAMAGE,
+        // source queda debilitado
+        FAINT,
+        // source entra al campo en la posición slot
+        SWITCH,
+        // el objeto itemId de source cambia lo que pasa (p. ej. un objeto Choice fuerza el movimiento move)
+        ITEM_TRIGGERED,
+        // fin del turno turn; winner es el ganador si el combate ha terminado
+        TURN_END
+    }
+
+    Type type;
+    int turn;
+    boolean isTeam1;
+    int slot = -1;
+    Pokemon source;
+    Pokemon target;
+    PokemonMove move;
+    int amount;
+    int hp;
+    float effectiveness = 1f;
+    String itemId;
+    int winner;
+
+    // El motor rellena después los campos propios de cada tipo
+    BattleEvent(Type type, int turn, boolean isTeam1, int slot, Pokemon source) {
+        this.type = type;
+        this.turn = turn;
+        this.isTeam1 = isTeam1;
+        this.slot = slot;
+        this.source = source;
+        this.hp = source != null ? source.getHealth() : 0;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // Turno en el que ocurre, empezando en 0
+    public int getTurn() {
+        return turn;
+    }
+
+    // Bando de source
+    public boolean isTeam1() {
+        return isTeam1;
+    }
+
+    // Posición de source en su equipo; -1 en TURN_END
+    public int getSlot() {
+        return slot;
+    }
+
+    public Pokemon getSource() {
+        return source;
+    }
+
+    public Pokemon getTarget() {
+        return target;
+    }
+
+    public PokemonMove getMove() {
+        return move;
+    }
+
+    // Daño realmente restado (no pasa de la vida que le quedaba al objetivo)
+    public int getAmount() {
+        return amount;
+    }
+
+    // Vida tras el suceso: la del objetivo en DAMAGE, la de source en el resto
+    public int getHp() {
+        return hp;
+    }
+
+    public float getEffectiveness() {
+        return effectiveness;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    // 1 o 2 en el TURN_END que cierra el combate; 0 en cualquier otro caso
+    public int getWinner() {
+        return winner;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(64);
+        text.append(turn).append(' ').append(type);
+        if (type == Type.TURN_END) {
+            return winner != 0 ? text.append(" winner=").append(winner).toString() : text.toString();
+        }
+        text.append(' ').append(isTeam1 ? 1 : 2).append(':').append(slot);
+        if (source != null) text.append(' ').append(source.getName());
+        if (move != null) text.append(' ').append(move.getName());
+        if (target != null) text.append(" -> ").append(target.getName());
+        if (type == Type.DAMAGE) text.append(' ').append(amount).append(" x").append(effectiveness);
+        if (itemId != null) text.append(' ').append(itemId);
+        text.append(" hp=").append(hp);
+        return text.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.PokemonMove;
+import com.rpgen.pokemon.random.BattleRandom;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+public class BattleSimulator {
+    public static final int DEFAULT_MAX_TURNS = 500;
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int maxTurns;
+
+    public BattleSimulator() {
+        this(DEFAULT_MAX_TURNS);
+    }
+
+    public BattleSimulator(int maxTurns) {
+        this.maxTurns = Math.max(1, maxTurns);
+    }
+
+    public SimulationResult simulate(List<Pokemon> team1, List<Pokemon> team2, MoveSelectionPolicy policy,
+                                     long seed, int iterations) {
+        return simulate(team1, team2, policy, policy, seed, iterations);
+    }
+
+    // Ejecuta las iteraciones en paralelo; cada combate usa copias propias de los equipos y su propia semilla,
+    // por lo que el resultado es reproducible sea cual sea el reparto entre hilos
+    public SimulationResult simulate(List<Pokemon> team1, List<Pokemon> team2,
+                                     MoveSelectionPolicy team1Policy, MoveSelectionPolicy team2Policy,
+                                     long seed, int iterations) {
+        Objects.requireNonNull(team1Policy);
+        Objects.requireNonNull(team2Policy);
+        List<Pokemon> team1Template = List.copyOf(team1);
+        List<Pokemon> team2Template = List.copyOf(team2);
+        return IntStream.range(0, Math.max(0, iterations))
+            .parallel()
+            .collect(SimulationResult::new,
+                (result, iteration) -> runBattle(team1Template, team2Template, team1Policy, team2Policy,
+                    seed + iteration * SEED_GAMMA, result),
+                SimulationResult::combine);
+    }
+
+    public SimulationResult simulateOnce(List<Pokemon> team1, List<Pokemon> team2,
+                                         MoveSelectionPolicy team1Policy, MoveSelectionPolicy team2Policy, long seed) {
+        SimulationResult result = new SimulationResult();
+        runBattle(team1, team2, team1Policy, team2Policy, seed, result);
+        return result;
+    }
+
+    private void runBattle(List<Pokemon> team1Template, List<Pokemon> team2Template,
+                           MoveSelectionPolicy team1Policy, MoveSelectionPolicy team2Policy,
+                           long seed, SimulationResult result) {
+        List<Pokemon> team1 = copyTeam(team1Template);
+        List<Pokemon> team2 = copyTeam(team2Template);
+        BattleRandom random = BattleRandom.seeded(seed);
+        PokemonBattleEngine engine = new PokemonBattleEngine(random.split());
+        engine.initialize(team1, team2);
+
+        int team1StartHealth = totalHealth(team1);
+        int team2StartHealth = totalHealth(team2);
+        int turns = 0;
+        if (sendNextAlive(engine, team1, true) && sendNextAlive(engine, team2, false)) {
+            while (!engine.isBattleOver() && turns < maxTurns) {
+                Pokemon active1 = engine.getActivePokemon(true);
+                Pokemon active2 = engine.getActivePokemon(false);
+                PokemonMove move1 = team1Policy.selectMove(active1, active2, random);
+                PokemonMove move2 = team2Policy.selectMove(active2, active1, random);
+                engine.selectMove(active1, move1);
+                // La segunda elección resuelve el turno
+                engine.selectMove(active2, move2);
+                turns++;
+                if (engine.isBattleOver()) break;
+                if (!engine.getActivePokemon(true).isAlive()) sendNextAlive(engine, team1, true);
+                if (!engine.getActivePokemon(false).isAlive()) sendNextAlive(engine, team2, false);
+            }
+        }
+
+        result.accept(engine.getWinningTeam(), turns,
+            team2StartHealth - totalHealth(team2), team2StartHealth,
+            team1StartHealth - totalHealth(team1), team1StartHealth);
+    }
+
+    private static boolean sendNextAlive(PokemonBattleEngine engine, List<Pokemon> team, boolean isTeam1) {
+        for (Pokemon pokemon : team) {
+            if (pokemon.isAlive()) {
+                return engine.switchPokemon(pokemon, isTeam1) != null;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pokemon> copyTeam(List<Pokemon> team) {
+        List<Pokemon> copy = new ArrayList<>(team.size());
+        for (Pokemon pokemon : team) {
+            copy.add(pokemon.copy());
+        }
+        return copy;
+    }
+
+    private static int totalHealth(List<Pokemon> team) {
+        int total = 0;
+        for (Pokemon pokemon : team) {
+            total += pokemon.getHealth();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,91 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.entity.Pokemon;
+
+// Estado mutable de un combate en arrays planos (equipo 1 seguido del equipo 2).
+// Los datos de especie y configuración no se copian: siguen compartidos por las instancias de Pokemon
+public final class BattleState {
+    static final int STAGE_COUNT = Pokemon.STAT_COUNT - 1;
+
+    final int team1Size;
+    final int team2Size;
+    final int[] health;
+    final byte[] statStages;
+    final byte[] status;
+    // Estados no reconocidos por StatusCondition; solo se reserva si aparece alguno
+    String[] unknownStatus;
+    final int[] lockedMoveSlots;
+    int team1ActiveSlot = -1;
+    int team2ActiveSlot = -1;
+    boolean battleOver;
+    int turn;
+
+    BattleState(int team1Size, int team2Size) {
+        this.team1Size = team1Size;
+        this.team2Size = team2Size;
+        int size = team1Size + team2Size;
+        this.health = new int[size];
+        this.statStages = new byte[size * STAGE_COUNT];
+        this.status = new byte[size];
+        this.lockedMoveSlots = new int[size];
+    }
+
+    boolean fits(int team1Size, int team2Size) {
+        return this.team1Size == team1Size && this.team2Size == team2Size;
+    }
+
+    int offset(boolean isTeam1) {
+        return isTeam1 ? 0 : team1Size;
+    }
+
+    public int getTeamSize(boolean isTeam1) {
+        return isTeam1 ? team1Size : team2Size;
+    }
+
+    public int getHealth(boolean isTeam1, int slot) {
+        return health[offset(isTeam1) + slot];
+    }
+
+    public int getStatStage(boolean isTeam1, int slot, int stat) {
+        if (stat <= Pokemon.STAT_HP || stat >= Pokemon.STAT_COUNT) return 0;
+        return statStages[(offset(isTeam1) + slot) * STAGE_COUNT + stat - 1];
+    }
+
+    public byte getStatusCode(boolean isTeam1, int slot) {
+        return status[offset(isTeam1) + slot];
+    }
+
+    public int getLockedMoveSlot(boolean isTeam1, int slot) {
+        return lockedMoveSlots[offset(isTeam1) + slot];
+    }
+
+    public int getActiveSlot(boolean isTeam1) {
+        return isTeam1 ? team1ActiveSlot : team2ActiveSlot;
+    }
+
+    public boolean isBattleOver() {
+        return battleOver;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public BattleState copy() {
+        BattleState copy = new BattleState(team1Size, team2Size);
+        copyInto(copy);
+        return copy;
+    }
+
+    void copyInto(BattleState target) {
+        System.arraycopy(health, 0, target.health, 0, health.length);
+        System.arraycopy(statStages, 0, target.statStages, 0, statStages.length);
+        System.arraycopy(status, 0, target.status, 0, status.length);
+        System.arraycopy(lockedMoveSlots, 0, target.lockedMoveSlots, 0, lockedMoveSlots.length);
+        target.unknownStatus = unknownStatus != null ? unknownStatus.clone() : null;
+        target.team1ActiveSlot = team1ActiveSlot;
+        target.team2ActiveSlot = team2ActiveSlot;
+        target.battleOver = battleOver;
+        target.turn = turn;
+    }
+}
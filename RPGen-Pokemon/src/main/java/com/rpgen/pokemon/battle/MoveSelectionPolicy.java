@@ -0,0 +1,41 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.data.TypeEffectiveness;
+import com.rpgen.pokemon.entity.MoveCategory;
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.PokemonMove;
+import com.rpgen.pokemon.random.BattleRandom;
+
+@FunctionalInterface
+public interface MoveSelectionPolicy {
+    PokemonMove selectMove(Pokemon attacker, Pokemon defender, BattleRandom random);
+
+    static MoveSelectionPolicy randomMove() {
+        return (attacker, defender, random) -> {
+            int size = attacker.getMovesetSize();
+            return size == 0 ? null : attacker.getMovesetMove(random.nextInt(size));
+        };
+    }
+
+    // Elige el movimiento con mayor potencia esperada contra el defensor actual
+    static MoveSelectionPolicy strongestMove() {
+        return (attacker, defender, random) -> {
+            PokemonMove best = null;
+            double bestScore = -1;
+            int size = attacker.getMovesetSize();
+            for (int slot = 0; slot < size; slot++) {
+                PokemonMove move = attacker.getMovesetMove(slot);
+                if (move == null) continue;
+                double score = move.getPower() * TypeEffectiveness.effectiveness(move.getTypeOrdinal(),
+                        defender.getPrimaryTypeOrdinal(), defender.getSecondaryTypeOrdinal());
+                score *= move.getMoveCategory() == MoveCategory.SPECIAL
+                        ? attacker.getSpecialAttack() : attacker.getAttack();
+                if (score > bestScore) {
+                    best = move;
+                    bestScore = score;
+                }
+            }
+            return best;
+        };
+    }
+}
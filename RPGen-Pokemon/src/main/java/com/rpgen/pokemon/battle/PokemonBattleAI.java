@@ -0,0 +1,323 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.PokemonMove;
+import com.rpgen.pokemon.random.BattleRandom;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Rival controlado por el servidor: búsqueda Monte Carlo con UCB1 sobre las acciones del turno actual
+// (movimientos y cambios) y simulaciones aleatorias hasta una profundidad limitada. Cada hilo trabaja
+// sobre su propio fork del combate y las estadísticas se suman al agotar el presupuesto de tiempo
+public class PokemonBattleAI {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+    public static final int DEFAULT_ROLLOUT_DEPTH = 12;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int GREEDY_ROLLOUT_PERCENT = 75;
+
+    private static final ExecutorService rolloutExecutor = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "pokemon-ai-rollout");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final long timeBudgetMillis;
+    private final int maxIterations;
+    private final int rolloutDepth;
+    private final int threads;
+    private final MoveSelectionPolicy greedyPolicy = MoveSelectionPolicy.strongestMove();
+    private final MoveSelectionPolicy randomPolicy = MoveSelectionPolicy.randomMove();
+
+    public PokemonBattleAI() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, Integer.MAX_VALUE, DEFAULT_ROLLOUT_DEPTH,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    public PokemonBattleAI(long timeBudgetMillis, int maxIterations, int rolloutDepth, int threads) {
+        this.timeBudgetMillis = Math.max(1, timeBudgetMillis);
+        this.maxIterations = Math.max(1, maxIterations);
+        this.rolloutDepth = Math.max(1, rolloutDepth);
+        this.threads = Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    // Elige y aplica la acción del bando indicado sobre el combate real
+    public Decision play(PokemonBattleEngine engine, boolean isTeam1) {
+        return play(engine, isTeam1, timeBudgetMillis);
+    }
+
+    public Decision play(PokemonBattleEngine engine, boolean isTeam1, long budgetMillis) {
+        Decision decision = decide(engine, isTeam1, budgetMillis);
+        if (decision == null) return null;
+        if (decision.isSwitch()) {
+            engine.switchToSlot(isTeam1, decision.getSlot());
+        } else {
+            engine.selectMoveSlot(isTeam1, decision.getSlot());
+        }
+        return decision;
+    }
+
+    public Decision decide(PokemonBattleEngine engine, boolean isTeam1) {
+        return decide(engine, isTeam1, timeBudgetMillis);
+    }
+
+    public Decision decide(PokemonBattleEngine engine, boolean isTeam1, long budgetMillis) {
+        if (engine.isBattleOver() || engine.getActivePokemon(isTeam1) == null
+                || engine.getActivePokemon(!isTeam1) == null) {
+            return null;
+        }
+        int[] actions = legalActions(engine, isTeam1);
+        if (actions.length == 0) return null;
+        if (actions.length == 1) return toDecision(engine, isTeam1, actions[0], 0, 0.0);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMillis));
+        AtomicInteger iterations = new AtomicInteger();
+        // Los forks se crean en el hilo llamante, que es quien tiene acceso exclusivo al combate. Sus generadores
+        // salen del hilo y no del combate, para que pensar no cambie las tiradas del combate real (que
+        // dependerían además del número de núcleos)
+        List<Worker> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(engine.fork(BattleRandom.current().split()), isTeam1, actions, deadline, iterations));
+        }
+
+        if (threads == 1) {
+            workers.get(0).run();
+        } else {
+            List<Future<?>> futures = new ArrayList<>(threads - 1);
+            for (int i = 1; i < threads; i++) {
+                futures.add(rolloutExecutor.submit(workers.get(i)));
+            }
+            workers.get(0).run();
+            for (Future<?> future : futures) {
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    future.get(Math.max(0, remaining) + TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    System.err.println("Error en una simulación de la IA: " + e.getCause());
+                }
+            }
+        }
+
+        long[] visits = new long[actions.length];
+        double[] values = new double[actions.length];
+        for (Worker worker : workers) {
+            synchronized (worker) {
+                for (int i = 0; i < actions.length; i++) {
+                    visits[i] += worker.visits[i];
+                    values[i] += worker.values[i];
+                }
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < actions.length; i++) {
+            if (visits[i] > visits[best]) best = i;
+        }
+        double expected = visits[best] > 0 ? values[best] / visits[best] : 0.0;
+        return toDecision(engine, isTeam1, actions[best], iterations.get(), expected);
+    }
+
+    // Acciones codificadas: >= 0 es una casilla de movimiento, -(posición + 1) un cambio a esa posición.
+    // Con el activo debilitado solo vale sacar a otro
+    private static int[] legalActions(PokemonBattleEngine engine, boolean isTeam1) {
+        Pokemon active = engine.getActivePokemon(isTeam1);
+        int moveCount = active != null && active.isAlive() ? engine.getMovesetSize(isTeam1) : 0;
+        List<Pokemon> team = isTeam1 ? engine.getTeam1() : engine.getTeam2();
+        int activeSlot = engine.getActiveSlot(isTeam1);
+        int[] actions = new int[moveCount + team.size()];
+        int count = 0;
+        for (int slot = 0; slot < moveCount; slot++) {
+            actions[count++] = slot;
+        }
+        for (int slot = 0; slot < team.size(); slot++) {
+            if (slot != activeSlot && team.get(slot).isAlive()) {
+                actions[count++] = -(slot + 1);
+            }
+        }
+        return Arrays.copyOf(actions, count);
+    }
+
+    private static Decision toDecision(PokemonBattleEngine engine, boolean isTeam1, int action, int iterations, double expected) {
+        if (action >= 0) {
+            PokemonMove move = engine.getActivePokemon(isTeam1).getMovesetMove(action);
+            return new Decision(false, action, move != null ? move.getName() : null, iterations, expected);
+        }
+        int slot = -action - 1;
+        Pokemon target = (isTeam1 ? engine.getTeam1() : engine.getTeam2()).get(slot);
+        return new Decision(true, slot, target.getName(), iterations, expected);
+    }
+
+    private final class Worker implements Runnable {
+        private final PokemonBattleEngine engine;
+        private final boolean isTeam1;
+        private final int[] actions;
+        private final long deadline;
+        private final AtomicInteger iterations;
+        private final BattleState root;
+        private final BattleRandom random;
+        private final long[] visits;
+        private final double[] values;
+
+        Worker(PokemonBattleEngine engine, boolean isTeam1, int[] actions, long deadline, AtomicInteger iterations) {
+            this.engine = engine;
+            this.isTeam1 = isTeam1;
+            this.actions = actions;
+            this.deadline = deadline;
+            this.iterations = iterations;
+            this.root = engine.snapshot();
+            this.random = engine.getRandom();
+            this.visits = new long[actions.length];
+            this.values = new double[actions.length];
+        }
+
+        @Override
+        public void run() {
+            BattleState scratch = root.copy();
+            long total = 0;
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()
+                    && iterations.getAndIncrement() < maxIterations) {
+                int choice = selectByUcb(total);
+                root.copyInto(scratch);
+                engine.restore(scratch);
+                double value = simulate(actions[choice]);
+                synchronized (this) {
+                    visits[choice]++;
+                    values[choice] += value;
+                }
+                total++;
+            }
+        }
+
+        private int selectByUcb(long total) {
+            int best = 0;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double logTotal = Math.log(Math.max(1, total));
+            for (int i = 0; i < actions.length; i++) {
+                if (visits[i] == 0) return i;
+                double score = values[i] / visits[i] + EXPLORATION * Math.sqrt(logTotal / visits[i]);
+                if (score > bestScore) {
+                    best = i;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        private double simulate(int firstAction) {
+            applyAction(isTeam1, firstAction);
+            // La elección del segundo bando resuelve el turno
+            applyRolloutMove(!isTeam1);
+            replaceFainted();
+            for (int depth = 1; depth < rolloutDepth && !engine.isBattleOver(); depth++) {
+                applyRolloutMove(true);
+                applyRolloutMove(false);
+                replaceFainted();
+            }
+            return evaluate();
+        }
+
+        private void applyAction(boolean side, int action) {
+            if (action >= 0) {
+                engine.selectMoveSlot(side, action);
+            } else {
+                engine.switchToSlot(side, -action - 1);
+            }
+        }
+
+        private void applyRolloutMove(boolean side) {
+            Pokemon attacker = engine.getActivePokemon(side);
+            Pokemon defender = engine.getActivePokemon(!side);
+            if (attacker == null || defender == null) return;
+            MoveSelectionPolicy policy = random.nextInt(100) < GREEDY_ROLLOUT_PERCENT ? greedyPolicy : randomPolicy;
+            engine.selectMove(attacker, policy.selectMove(attacker, defender, random));
+        }
+
+        private void replaceFainted() {
+            if (engine.isBattleOver()) return;
+            replaceFainted(true);
+            replaceFainted(false);
+        }
+
+        private void replaceFainted(boolean side) {
+            Pokemon active = engine.getActivePokemon(side);
+            if (active != null && active.isAlive()) return;
+            List<Pokemon> team = side ? engine.getTeam1() : engine.getTeam2();
+            int alive = 0;
+            for (Pokemon pokemon : team) {
+                if (pokemon.isAlive()) alive++;
+            }
+            if (alive == 0) return;
+            int pick = random.nextInt(alive);
+            for (int slot = 0; slot < team.size(); slot++) {
+                if (team.get(slot).isAlive() && pick-- == 0) {
+                    engine.switchToSlot(side, slot);
+                    return;
+                }
+            }
+        }
+
+        // Valor en [0, 1] desde el punto de vista del bando de la IA
+        private double evaluate() {
+            if (engine.isBattleOver()) {
+                int winner = engine.getWinningTeam();
+                if (winner == 0) return 0.5;
+                return (winner == 1) == isTeam1 ? 1.0 : 0.0;
+            }
+            double own = healthFraction(isTeam1 ? engine.getTeam1() : engine.getTeam2(), isTeam1);
+            double rival = healthFraction(isTeam1 ? engine.getTeam2() : engine.getTeam1(), !isTeam1);
+            return 0.5 + 0.5 * (own - rival);
+        }
+
+        private double healthFraction(List<Pokemon> team, boolean side) {
+            long current = 0;
+            long max = 0;
+            for (int slot = 0; slot < team.size(); slot++) {
+                current += team.get(slot).getHealth();
+                max += root.getHealth(side, slot);
+            }
+            return max > 0 ? (double) current / max : 0.0;
+        }
+    }
+
+    public static class Decision {
+        private final boolean isSwitch;
+        private final int slot;
+        private final String name;
+        private final int iterations;
+        private final double expectedValue;
+
+        public Decision(boolean isSwitch, int slot, String name, int iterations, double expectedValue) {
+            this.isSwitch = isSwitch;
+            this.slot = slot;
+            this.name = name;
+            this.iterations = iterations;
+            this.expectedValue = expectedValue;
+        }
+
+        public boolean isSwitch() { return isSwitch; }
+        public int getSlot() { return slot; }
+        public String getName() { return name; }
+        public int getIterations() { return iterations; }
+        public double getExpectedValue() { return expectedValue; }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("type", isSwitch ? "switch" : "move");
+            map.put("slot", slot);
+            map.put("name", name);
+            map.put("iterations", iterations);
+            map.put("expectedValue", expectedValue);
+            return map;
+        }
+    }
+}
@@ -3,36 +3,50 @@ package com.rpgen.pokemon.battle;
 import com.rpgen.core.battle.BattleEngine;
 import com.rpgen.core.battle.BattleListener;
 import java.util.*;
+import com.rpgen.pokemon.data.TypeEffectiveness;
+import com.rpgen.pokemon.entity.MoveCategory;
 import com.rpgen.pokemon.entity.Pokemon;
 import com.rpgen.pokemon.entity.PokemonMove;
-import com.rpgen.core.action.GameAction;
+import com.rpgen.pokemon.entity.StatusCondition;
+import com.rpgen.pokemon.random.BattleRandom;
 
 
 public class PokemonBattleEngine extends BattleEngine<Pokemon, PokemonMove> {
     private List<Pokemon> team1;
     private List<Pokemon> team2;
-    private List<PendingAction> pendingActions;
-    private Random random;
+    private final BattleRandom random;
+    // Bando que ya ha comprometido su acción del turno (movimiento o cambio voluntario). En cuanto lo han
+    // hecho los dos, el turno se resuelve dentro de la misma llamada
     private boolean team1ActionSelected;
     private boolean team2ActionSelected;
+    // Cambio voluntario elegido este turno: cuenta como la acción del bando y se hace al resolverse el turno
+    private Pokemon team1SwitchIn;
+    private Pokemon team2SwitchIn;
+    private int team1SwitchSlot;
+    private int team2SwitchSlot;
     private boolean battleOver;
     private Pokemon team1ActivePokemon;
     private Pokemon team2ActivePokemon;
-    private final Map<String, String> lockedMoveByPokemonId = new HashMap<>();
-    private final Map<String, PokemonMove> selectedMoves = new HashMap<>();
-
-    private static class PendingAction {
-        Pokemon source;
-        Pokemon target;
-        PokemonMove action;
-        PendingAction(Pokemon s, Pokemon t, PokemonMove a) {
-            source = s; target = t; action = a;
-        }
-    }
+    // Movimiento bloqueado (objetos Choice) por posición en el equipo; -1 si no hay bloqueo
+    private int[] team1LockedMoves = new int[0];
+    private int[] team2LockedMoves = new int[0];
+    private int turnNumber;
+    private PokemonMove team1SelectedMove;
+    private PokemonMove team2SelectedMove;
+    private static final PokemonBattleListener[] NO_LISTENERS = new PokemonBattleListener[0];
+    // Se copia al registrar o quitar; sin oyentes cada suceso cuesta una comprobación de longitud
+    private PokemonBattleListener[] listeners = NO_LISTENERS;
 
     public PokemonBattleEngine() {
-        this.pendingActions = new ArrayList<>();
-        this.random = new Random();
+        this(BattleRandom.create());
+    }
+
+    public PokemonBattleEngine(long seed) {
+        this(BattleRandom.seeded(seed));
+    }
+
+    public PokemonBattleEngine(BattleRandom random) {
+        this.random = Objects.requireNonNull(random);
         this.team1ActionSelected = false;
         this.team2ActionSelected = false;
         this.battleOver = false;
@@ -42,51 +56,78 @@ public class PokemonBattleEngine extends BattleEngine<Pokemon, PokemonMove> {
     public void initialize(List<Pokemon> team1, List<Pokemon> team2) {
         this.team1 = new ArrayList<>(team1);
         this.team2 = new ArrayList<>(team2);
-        this.pendingActions = new ArrayList<>();
         this.team1ActionSelected = false;
         this.team2ActionSelected = false;
         this.battleOver = false;
         this.team1ActivePokemon = null;
         this.team2ActivePokemon = null;
+        this.team1LockedMoves = new int[this.team1.size()];
+        this.team2LockedMoves = new int[this.team2.size()];
+        Arrays.fill(team1LockedMoves, -1);
+        Arrays.fill(team2LockedMoves, -1);
+        this.turnNumber = 0;
+        clearSelectedMoves();
     }
 
+    // El objetivo es siempre el rival activo; el movimiento tiene que estar en el moveset del atacante
     @Override
     public void addAction(Pokemon source, Pokemon target, PokemonMove action) {
-        if (battleOver) return;
+        if (battleOver || source == null || source.getId() == null || action == null) return;
         Pokemon sourceInTeam = findPokemonInTeams(source);
         if (sourceInTeam == null || !sourceInTeam.isAlive()) {
             return;
         }
-        pendingActions.add(new PendingAction(source, target, action));
-        if (team1.stream().anyMatch(p -> p.getId().equals(source.getId()))) {
-            team1ActionSelected = true;
-        } else {
-            team2ActionSelected = true;
+        PokemonMove move = sourceInTeam.getMovesetMove(sourceInTeam.getMovesetSlot(action.getId()));
+        if (move != null) {
+            selectMove(sourceInTeam, move);
         }
     }
 
+    // Resuelve el turno si los dos bandos han elegido; si falta alguno no hace nada y las elecciones se
+    // conservan. Normalmente ya no hace falta llamarlo: la segunda elección resuelve el turno por sí sola
     @Override
     public void processTurn() {
         if (battleOver) return;
         if (team1ActivePokemon == null || team2ActivePokemon == null) return;
-        PokemonMove move1 = selectedMoves.getOrDefault(team1ActivePokemon.getId(), null);
-        PokemonMove move2 = selectedMoves.getOrDefault(team2ActivePokemon.getId(), null);
-        if (move1 == null || move2 == null) {
-            selectedMoves.clear();
-            return;
-        }
+        if (!team1ActionSelected || !team2ActionSelected) return;
+        PokemonMove move1 = team1SelectedMove;
+        PokemonMove move2 = team2SelectedMove;
+        // Los cambios van antes que cualquier movimiento; hasta ahora el rival no sabía nada de ellos
+        if (team1SwitchIn != null) sendIn(true, team1SwitchSlot, team1SwitchIn);
+        if (team2SwitchIn != null) sendIn(false, team2SwitchSlot, team2SwitchIn);
         int speed1 = team1ActivePokemon.getSpeed();
         int speed2 = team2ActivePokemon.getSpeed();
         boolean firstIsTeam1 = speed1 >= speed2;
         if (firstIsTeam1) {
-            processAttack(team1ActivePokemon, team2ActivePokemon, move1);
-            if (!battleOver) processAttack(team2ActivePokemon, team1ActivePokemon, move2);
+            processAttack(true, move1);
+            if (!battleOver) processAttack(false, move2);
         } else {
-            processAttack(team2ActivePokemon, team1ActivePokemon, move2);
-            if (!battleOver) processAttack(team1ActivePokemon, team2ActivePokemon, move1);
+            processAttack(false, move2);
+            if (!battleOver) processAttack(true, move1);
         }
-        selectedMoves.clear();
+        clearSelectedMoves();
+        turnNumber++;
         checkBattleEnd();
+        if (listeners.length != 0) {
+            BattleEvent turnEnd = event(BattleEvent.Type.TURN_END, true, -1, null);
+            turnEnd.turn = turnNumber - 1;
+            turnEnd.winner = getWinningTeam();
+            emit(turnEnd);
+        }
+    }
+
+    private void clearSelectedMoves() {
+        team1SelectedMove = null;
+        team2SelectedMove = null;
+        team1SwitchIn = null;
+        team2SwitchIn = null;
+        team1ActionSelected = false;
+        team2ActionSelected = false;
+    }
+
+    // true si el bando ya ha elegido y espera al rival
+    public boolean hasCommittedAction(boolean isTeam1) {
+        return isTeam1 ? team1ActionSelected : team2ActionSelected;
     }
 
     @Override
@@ -104,8 +145,21 @@ public class PokemonBattleEngine extends BattleEngine<Pokemon, PokemonMove> {
         return team2;
     }
 
+    // Se comprueba en cada turno: un bucle simple, sin streams que reserven memoria
     private boolean isTeamDefeated(List<Pokemon> team) {
-        return team.stream().allMatch(pokemon -> !pokemon.isAlive());
+        for (int i = 0; i < team.size(); i++) {
+            if (team.get(i).isAlive()) return false;
+        }
+        return true;
+    }
+
+    // 1 o 2 según el equipo ganador; 0 si la batalla sigue o termina en empate
+    public int getWinningTeam() {
+        if (!battleOver) return 0;
+        boolean team1Defeated = isTeamDefeated(team1);
+        boolean team2Defeated = isTeamDefeated(team2);
+        if (team1Defeated == team2Defeated) return 0;
+        return team1Defeated ? 2 : 1;
     }
 
     public void checkBattleEnd() {
@@ -130,32 +184,41 @@ public class PokemonBattleEngine extends BattleEngine<Pokemon, PokemonMove> {
         return null;
     }
 
+    // Solo guarda la elección; el bloqueo de los objetos Choice se aplica al usarse el movimiento. Un Pokémon
+    // debilitado no elige: su bando tiene que sacar antes a otro
     public void selectMove(Pokemon pokemon, PokemonMove move) {
         if (pokemon == null || move == null) return;
-        String pokeId = pokemon.getId();
-        if (pokeId == null) return;
-        boolean isChoice = false;
-        if (pokemon.getHeldItem() != null) {
-            Object onlyOneMove = pokemon.getHeldItem().getExtraEffects().get("onlyOneMove");
-            isChoice = Boolean.TRUE.equals(onlyOneMove);
+        if (pokemon.getId() == null || !pokemon.isAlive()) return;
+        storeSelectedMove(pokemon, move);
+    }
+
+    // Las selecciones se guardan por bando para que los espejos (mismo id en ambos equipos) no colisionen
+    private void storeSelectedMove(Pokemon pokemon, PokemonMove move) {
+        if (pokemon == team1ActivePokemon) {
+            commitMove(true, move);
+        } else if (pokemon == team2ActivePokemon) {
+            commitMove(false, move);
+        } else if (team1ActivePokemon != null && team1ActivePokemon.getId().equals(pokemon.getId())) {
+            commitMove(true, move);
+        } else if (team2ActivePokemon != null && team2ActivePokemon.getId().equals(pokemon.getId())) {
+            commitMove(false, move);
         }
-        String lockedMove = lockedMoveByPokemonId.get(pokeId);
-        String moveId = move.getId();
-        if (isChoice) {
-            if (lockedMove == null) {
-                lockedMoveByPokemonId.put(pokeId, moveId);
-            } else if (!lockedMove.equals(moveId)) {
-                List<GameAction> moves = pokemon.getAvailableActions();
-                PokemonMove forced = (PokemonMove) moves.stream()
-                        .filter(a -> lockedMove.equals(a.getId()))
-                        .findFirst().orElse(move);
-                selectedMoves.put(pokeId, forced);
-                return;
-            }
+    }
+
+    // Se puede cambiar de movimiento mientras el rival no haya elegido, pero quien ya ha cambiado de
+    // Pokémon este turno no ataca además, ni tampoco un activo debilitado
+    private void commitMove(boolean isTeam1, PokemonMove move) {
+        if (battleOver || (isTeam1 ? team1SwitchIn : team2SwitchIn) != null) return;
+        Pokemon active = isTeam1 ? team1ActivePokemon : team2ActivePokemon;
+        if (active == null || !active.isAlive()) return;
+        if (isTeam1) {
+            team1SelectedMove = move;
+            team1ActionSelected = true;
         } else {
-            lockedMoveByPokemonId.remove(pokeId);
+            team2SelectedMove = move;
+            team2ActionSelected = true;
         }
-        selectedMoves.put(pokeId, move);
+        processTurn();
     }
 
     public Pokemon switchPokemon(Pokemon newPokemon, boolean isTeam1) {
@@ -163,152 +226,313 @@ public class PokemonBattleEngine extends BattleEngine<Pokemon, PokemonMove> {
             return null;
         }
         List<Pokemon> team = isTeam1 ? team1 : team2;
+        int index = indexInTeam(team, newPokemon);
+        if (index < 0 || !team.get(index).isAlive()) {
+            return null;
+        }
+        Pokemon previous = isTeam1 ? team1ActivePokemon : team2ActivePokemon;
+        // Sustituir a un Pokémon debilitado no consume el turno; retirar a uno sano sí
+        boolean voluntary = previous != null && previous.isAlive();
+        if (!voluntary) {
+            // Entrar en lugar de un debilitado no compromete nada y se hace al momento
+            sendIn(isTeam1, index, newPokemon);
+            return newPokemon;
+        }
+        // Un cambio voluntario es la acción del bando: queda elegido y se hace, y se anuncia, en processTurn
+        if (isTeam1) {
+            team1SwitchIn = newPokemon;
+            team1SwitchSlot = index;
+            team1SelectedMove = null;
+            team1ActionSelected = true;
+        } else {
+            team2SwitchIn = newPokemon;
+            team2SwitchSlot = index;
+            team2SelectedMove = null;
+            team2ActionSelected = true;
+        }
+        processTurn();
+        return newPokemon;
+    }
+
+    private void sendIn(boolean isTeam1, int index, Pokemon pokemon) {
+        (isTeam1 ? team1 : team2).set(index, pokemon);
+        if (isTeam1) {
+            team1ActivePokemon = pokemon;
+        } else {
+            team2ActivePokemon = pokemon;
+        }
+        (isTeam1 ? team1LockedMoves : team2LockedMoves)[index] = -1;
+        if (listeners.length != 0) {
+            emit(event(BattleEvent.Type.SWITCH, isTeam1, index, pokemon));
+        }
+    }
+
+    // Se prefiere la misma instancia para distinguir repetidos de la misma especie; si no, se busca por id
+    private static int indexInTeam(List<Pokemon> team, Pokemon pokemon) {
         for (int i = 0; i < team.size(); i++) {
-            if (team.get(i).getId().equals(newPokemon.getId())) {
-                if (!team.get(i).isAlive()) {
-                    return null;
-                }
-                team.set(i, newPokemon);
-                if (isTeam1) {
-                    team1ActivePokemon = newPokemon;
-                    team1ActionSelected = true;
-                } else {
-                    team2ActivePokemon = newPokemon;
-                    team2ActionSelected = true;
+            if (team.get(i) == pokemon) {
+                return i;
+            }
+        }
+        for (int i = 0; i < team.size(); i++) {
+            if (team.get(i).getId().equals(pokemon.getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public BattleRandom getRandom() {
+        return random;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public int getActiveSlot(boolean isTeam1) {
+        Pokemon active = isTeam1 ? team1ActivePokemon : team2ActivePokemon;
+        return active != null ? indexInTeam(isTeam1 ? team1 : team2, active) : -1;
+    }
+
+    public int getMovesetSize(boolean isTeam1) {
+        Pokemon active = isTeam1 ? team1ActivePokemon : team2ActivePokemon;
+        return active != null ? active.getMovesetSize() : 0;
+    }
+
+    public void selectMoveSlot(boolean isTeam1, int moveSlot) {
+        Pokemon active = isTeam1 ? team1ActivePokemon : team2ActivePokemon;
+        if (active != null && active.isAlive()) {
+            selectMove(active, active.getMovesetMove(moveSlot));
+        }
+    }
+
+    public Pokemon switchToSlot(boolean isTeam1, int slot) {
+        List<Pokemon> team = isTeam1 ? team1 : team2;
+        if (slot < 0 || slot >= team.size()) return null;
+        return switchPokemon(team.get(slot), isTeam1);
+    }
+
+    public BattleState snapshot() {
+        return snapshot(null);
+    }
+
+    // Vuelca el estado mutable en arrays planos; reutiliza 'reuse' si tiene el tamaño adecuado
+    public BattleState snapshot(BattleState reuse) {
+        BattleState state = reuse != null && reuse.fits(team1.size(), team2.size())
+                ? reuse : new BattleState(team1.size(), team2.size());
+        state.unknownStatus = null;
+        writeTeam(state, team1, team1LockedMoves, 0);
+        writeTeam(state, team2, team2LockedMoves, team1.size());
+        state.team1ActiveSlot = getActiveSlot(true);
+        state.team2ActiveSlot = getActiveSlot(false);
+        state.battleOver = battleOver;
+        state.turn = turnNumber;
+        return state;
+    }
+
+    private static void writeTeam(BattleState state, List<Pokemon> team, int[] lockedMoves, int offset) {
+        for (int i = 0; i < team.size(); i++) {
+            Pokemon pokemon = team.get(i);
+            int position = offset + i;
+            state.health[position] = pokemon.getHealth();
+            for (int stat = Pokemon.STAT_ATTACK; stat < Pokemon.STAT_COUNT; stat++) {
+                state.statStages[position * BattleState.STAGE_COUNT + stat - 1] = (byte) pokemon.getStatStage(stat);
+            }
+            byte status = StatusCondition.encode(pokemon.getStatus());
+            state.status[position] = status;
+            if (status == StatusCondition.UNKNOWN_CODE) {
+                if (state.unknownStatus == null) {
+                    state.unknownStatus = new String[state.health.length];
                 }
-                lockedMoveByPokemonId.remove(newPokemon.getId());
-                return newPokemon;
+                state.unknownStatus[position] = pokemon.getStatus();
             }
+            state.lockedMoveSlots[position] = lockedMoves[i];
         }
-        return null;
+    }
+
+    // Devuelve el combate al estado capturado. Las selecciones de movimiento pendientes se descartan
+    public void restore(BattleState state) {
+        if (!state.fits(team1.size(), team2.size())) {
+            throw new IllegalArgumentException("El estado no corresponde a este combate");
+        }
+        readTeam(state, team1, team1LockedMoves, 0);
+        readTeam(state, team2, team2LockedMoves, team1.size());
+        team1ActivePokemon = state.team1ActiveSlot >= 0 ? team1.get(state.team1ActiveSlot) : null;
+        team2ActivePokemon = state.team2ActiveSlot >= 0 ? team2.get(state.team2ActiveSlot) : null;
+        battleOver = state.battleOver;
+        turnNumber = state.turn;
+        clearSelectedMoves();
+    }
+
+    private static void readTeam(BattleState state, List<Pokemon> team, int[] lockedMoves, int offset) {
+        for (int i = 0; i < team.size(); i++) {
+            Pokemon pokemon = team.get(i);
+            int position = offset + i;
+            pokemon.setHealth(state.health[position]);
+            for (int stat = Pokemon.STAT_ATTACK; stat < Pokemon.STAT_COUNT; stat++) {
+                pokemon.setStatStage(stat, state.statStages[position * BattleState.STAGE_COUNT + stat - 1]);
+            }
+            byte status = state.status[position];
+            pokemon.setStatus(status == StatusCondition.UNKNOWN_CODE
+                    ? state.unknownStatus[position] : StatusCondition.decode(status));
+            lockedMoves[i] = state.lockedMoveSlots[position];
+        }
+    }
+
+    // Combate independiente con el mismo estado: copia solo el estado mutable de cada Pokémon
+    // y usa un generador derivado, de modo que las ramas no interfieren entre sí
+    public PokemonBattleEngine fork() {
+        return fork(random.split());
+    }
+
+    // Igual, pero con el generador indicado: el combate original no consume ningún número aleatorio
+    public PokemonBattleEngine fork(BattleRandom forkRandom) {
+        PokemonBattleEngine fork = new PokemonBattleEngine(forkRandom);
+        fork.team1 = copyTeam(team1);
+        fork.team2 = copyTeam(team2);
+        fork.team1LockedMoves = team1LockedMoves.clone();
+        fork.team2LockedMoves = team2LockedMoves.clone();
+        int team1Active = getActiveSlot(true);
+        int team2Active = getActiveSlot(false);
+        fork.team1ActivePokemon = team1Active >= 0 ? fork.team1.get(team1Active) : null;
+        fork.team2ActivePokemon = team2Active >= 0 ? fork.team2.get(team2Active) : null;
+        fork.battleOver = battleOver;
+        fork.turnNumber = turnNumber;
+        return fork;
+    }
+
+    private static List<Pokemon> copyTeam(List<Pokemon> team) {
+        List<Pokemon> copy = new ArrayList<>(team.size());
+        for (Pokemon pokemon : team) {
+            copy.add(pokemon.copy());
+        }
+        return copy;
     }
 
     public Pokemon getActivePokemon(boolean isTeam1) {
         return isTeam1 ? team1ActivePokemon : team2ActivePokemon;
     }
 
-    private void processAttack(Pokemon attacker, Pokemon defender, PokemonMove move) {
+    private void processAttack(boolean attackerIsTeam1, PokemonMove move) {
+        Pokemon attacker = attackerIsTeam1 ? team1ActivePokemon : team2ActivePokemon;
+        Pokemon defender = attackerIsTeam1 ? team2ActivePokemon : team1ActivePokemon;
         if (attacker == null || defender == null || move == null) return;
         if (!attacker.isAlive() || !defender.isAlive()) return;
-        String attackType = move.getProperties().getOrDefault("type", "normal").toString();
-        List<String> defenderTypes = defender.getTypes();
-        double typeEffectiveness = calculateTypeEffectiveness(attackType, defenderTypes);
+        int attackerSlot = getActiveSlot(attackerIsTeam1);
+        move = applyChoiceLock(attackerIsTeam1, attackerSlot, attacker, move);
+        if (listeners.length != 0) {
+            BattleEvent used = event(BattleEvent.Type.MOVE_USED, attackerIsTeam1, attackerSlot, attacker);
+            used.target = defender;
+            used.move = move;
+            emit(used);
+        }
+        float typeEffectiveness = TypeEffectiveness.effectiveness(move.getTypeOrdinal(),
+                defender.getPrimaryTypeOrdinal(), defender.getSecondaryTypeOrdinal());
         int baseDamage = calculateBaseDamage(attacker, defender, move);
         double damage = baseDamage * typeEffectiveness;
         damage *= (0.85 + (random.nextDouble() * 0.15));
         int finalDamage = (int) Math.round(damage);
+        int healthBefore = defender.getHealth();
         defender.takeDamage(finalDamage);
+
+        if (listeners.length != 0) {
+            BattleEvent hit = event(BattleEvent.Type.DAMAGE, attackerIsTeam1, attackerSlot, attacker);
+            hit.target = defender;
+            hit.move = move;
+            hit.amount = healthBefore - defender.getHealth();
+            hit.hp = defender.getHealth();
+            hit.effectiveness = typeEffectiveness;
+            emit(hit);
+
+            if (healthBefore > 0 && !defender.isAlive()) {
+                emit(event(BattleEvent.Type.FAINT, !attackerIsTeam1, getActiveSlot(!attackerIsTeam1), defender));
+            }
+        }
+    }
+
+    // Un objeto Choice fija el primer movimiento que se usa con él; si después se elige otro, sale el fijado.
+    // Se decide al usarlo, así que cambiar de elección antes de que se resuelva el turno no bloquea nada
+    private PokemonMove applyChoiceLock(boolean isTeam1, int slot, Pokemon attacker, PokemonMove move) {
+        if (slot < 0) return move;
+        int[] lockedMoves = isTeam1 ? team1LockedMoves : team2LockedMoves;
+        boolean isChoice = attacker.getHeldItem() != null
+                && Boolean.TRUE.equals(attacker.getHeldItem().getExtraEffect("onlyOneMove"));
+        if (!isChoice) {
+            lockedMoves[slot] = -1;
+            return move;
+        }
+        int lockedSlot = lockedMoves[slot];
+        int moveSlot = attacker.getMovesetSlot(move.getId());
+        if (lockedSlot < 0) {
+            lockedMoves[slot] = moveSlot;
+            return move;
+        }
+        PokemonMove forced = lockedSlot != moveSlot ? attacker.getMovesetMove(lockedSlot) : null;
+        if (forced == null) return move;
+        if (listeners.length != 0) {
+            BattleEvent locked = event(BattleEvent.Type.ITEM_TRIGGERED, isTeam1, slot, attacker);
+            locked.move = forced;
+            locked.itemId = attacker.getHeldItem().getId();
+            emit(locked);
+        }
+        return forced;
+    }
+
+    // Uno nuevo por emisión (solo se llega aquí con oyentes): un oyente que provoque otro suceso desde
+    // onBattleEvent no puede pisar el que aún están recibiendo los demás
+    private BattleEvent event(BattleEvent.Type type, boolean isTeam1, int slot, Pokemon source) {
+        return new BattleEvent(type, turnNumber, isTeam1, slot, source);
+    }
+
+    // Un oyente que falla no debe cortar la resolución del turno ni dejar sin aviso a los demás
+    private void emit(BattleEvent emitted) {
+        for (PokemonBattleListener listener : listeners) {
+            try {
+                listener.onBattleEvent(emitted);
+            } catch (RuntimeException e) {
+                System.err.println("Error en un oyente del combate: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
     }
 
     private int calculateBaseDamage(Pokemon attacker, Pokemon defender, PokemonMove move) {
-        String category = move.getProperties().getOrDefault("category", "physical").toString();
-        int power = (int) move.getProperties().getOrDefault("power", 0);
-        int attackStat = category.equals("special") ? attacker.getSpecialAttack() : attacker.getAttack();
-        int defenseStat = category.equals("special") ? defender.getSpecialDefense() : defender.getDefense();
+        boolean special = move.getMoveCategory() == MoveCategory.SPECIAL;
+        int power = move.getPower();
+        int attackStat = special ? attacker.getSpecialAttack() : attacker.getAttack();
+        int defenseStat = special ? defender.getSpecialDefense() : defender.getDefense();
         return (int) ((((2 * 50 / 5 + 2) * attackStat * power / defenseStat) / 50) + 2);
     }
 
     public double calculateTypeEffectiveness(String attackType, List<String> defenderTypes) {
-        return calculateTypeEffectivenessInternal(attackType, defenderTypes);
-    }
-
-    private double calculateTypeEffectivenessInternal(String attackType, List<String> defenderTypes) {
-        double effectiveness = 1.0;
-        Map<String, Map<String, Double>> typeChart = new HashMap<>();
-        Map<String, Double> normal = new HashMap<>();
-        normal.put("rock", 0.5); normal.put("ghost", 0.0); normal.put("steel", 0.5);
-        typeChart.put("normal", normal);
-        Map<String, Double> fire = new HashMap<>();
-        fire.put("fire", 0.5); fire.put("water", 0.5); fire.put("grass", 2.0);
-        fire.put("ice", 2.0); fire.put("bug", 2.0); fire.put("rock", 0.5);
-        fire.put("dragon", 0.5); fire.put("steel", 2.0);
-        typeChart.put("fire", fire);
-        Map<String, Double> water = new HashMap<>();
-        water.put("fire", 2.0); water.put("water", 0.5); water.put("grass", 0.5);
-        water.put("ground", 2.0); water.put("rock", 2.0); water.put("dragon", 0.5);
-        typeChart.put("water", water);
-        Map<String, Double> electric = new HashMap<>();
-        electric.put("water", 2.0); electric.put("electric", 0.5); electric.put("grass", 0.5);
-        electric.put("ground", 0.0); electric.put("flying", 2.0); electric.put("dragon", 0.5);
-        typeChart.put("electric", electric);
-        Map<String, Double> grass = new HashMap<>();
-        grass.put("fire", 0.5); grass.put("water", 2.0); grass.put("grass", 0.5);
-        grass.put("poison", 0.5); grass.put("ground", 2.0); grass.put("flying", 0.5);
-        grass.put("bug", 0.5); grass.put("rock", 2.0); grass.put("dragon", 0.5);
-        grass.put("steel", 0.5);
-        typeChart.put("grass", grass);
-        Map<String, Double> ice = new HashMap<>();
-        ice.put("fire", 0.5); ice.put("water", 0.5); ice.put("grass", 2.0);
-        ice.put("ice", 0.5); ice.put("ground", 2.0); ice.put("flying", 2.0);
-        ice.put("dragon", 2.0); ice.put("steel", 0.5);
-        typeChart.put("ice", ice);
-        Map<String, Double> fighting = new HashMap<>();
-        fighting.put("normal", 2.0); fighting.put("ice", 2.0); fighting.put("poison", 0.5);
-        fighting.put("flying", 0.5); fighting.put("psychic", 0.5); fighting.put("bug", 0.5);
-        fighting.put("rock", 2.0); fighting.put("ghost", 0.0); fighting.put("dark", 2.0);
-        fighting.put("steel", 2.0);
-        typeChart.put("fighting", fighting);
-        Map<String, Double> poison = new HashMap<>();
-        poison.put("grass", 2.0); poison.put("poison", 0.5); poison.put("ground", 0.5);
-        poison.put("rock", 0.5); poison.put("ghost", 0.5); poison.put("steel", 0.0);
-        typeChart.put("poison", poison);
-        Map<String, Double> ground = new HashMap<>();
-        ground.put("fire", 2.0); ground.put("electric", 2.0); ground.put("grass", 0.5);
-        ground.put("poison", 2.0); ground.put("flying", 0.0); ground.put("bug", 0.5);
-        ground.put("rock", 2.0); ground.put("steel", 2.0);
-        typeChart.put("ground", ground);
-        Map<String, Double> flying = new HashMap<>();
-        flying.put("electric", 0.5); flying.put("grass", 2.0); flying.put("fighting", 2.0);
-        flying.put("bug", 2.0); flying.put("rock", 0.5); flying.put("steel", 0.5);
-        typeChart.put("flying", flying);
-        Map<String, Double> psychic = new HashMap<>();
-        psychic.put("fighting", 2.0); psychic.put("poison", 2.0); psychic.put("psychic", 0.5);
-        psychic.put("dark", 0.0); psychic.put("steel", 0.5);
-        typeChart.put("psychic", psychic);
-        Map<String, Double> bug = new HashMap<>();
-        bug.put("fire", 0.5); bug.put("grass", 2.0); bug.put("fighting", 0.5);
-        bug.put("poison", 0.5); bug.put("flying", 0.5); bug.put("psychic", 2.0);
-        bug.put("ghost", 0.5); bug.put("dark", 2.0); bug.put("steel", 0.5);
-        typeChart.put("bug", bug);
-        Map<String, Double> rock = new HashMap<>();
-        rock.put("fire", 2.0); rock.put("ice", 2.0); rock.put("fighting", 0.5);
-        rock.put("ground", 0.5); rock.put("flying", 2.0); rock.put("bug", 2.0);
-        rock.put("steel", 0.5);
-        typeChart.put("rock", rock);
-        Map<String, Double> ghost = new HashMap<>();
-        ghost.put("normal", 0.0); ghost.put("psychic", 2.0); ghost.put("ghost", 2.0);
-        ghost.put("dark", 0.5);
-        typeChart.put("ghost", ghost);
-        Map<String, Double> dragon = new HashMap<>();
-        dragon.put("dragon", 2.0); dragon.put("steel", 0.5);
-        typeChart.put("dragon", dragon);
-        Map<String, Double> dark = new HashMap<>();
-        dark.put("fighting", 0.5); dark.put("psychic", 2.0); dark.put("ghost", 2.0);
-        dark.put("dark", 0.5);
-        typeChart.put("dark", dark);
-        Map<String, Double> steel = new HashMap<>();
-        steel.put("fire", 0.5); steel.put("water", 0.5); steel.put("electric", 0.5);
-        steel.put("ice", 2.0); steel.put("rock", 2.0); steel.put("steel", 0.5);
-        typeChart.put("steel", steel);
-        Map<String, Double> fairy = new HashMap<>();
-        fairy.put("fire", 0.5); fairy.put("fighting", 2.0); fairy.put("poison", 0.5);
-        fairy.put("dragon", 2.0); fairy.put("dark", 2.0); fairy.put("steel", 0.5);
-        typeChart.put("fairy", fairy);
-        for (String defenderType : defenderTypes) {
-            Map<String, Double> typeRelations = typeChart.getOrDefault(attackType, Collections.emptyMap());
-            effectiveness *= typeRelations.getOrDefault(defenderType, 1.0);
-        }
-        return effectiveness;
+        return TypeEffectiveness.getEffectiveness(attackType, defenderTypes);
     }
 
+    // Solo los PokemonBattleListener reciben sucesos. Las copias hechas con fork no heredan oyentes, de modo
+    // que las simulaciones de la IA no emiten nada
     @Override
     public void registerBattleListener(BattleListener listener) {
-        // Implementación vacía o lógica según tu necesidad
+        if (!(listener instanceof PokemonBattleListener)) return;
+        for (PokemonBattleListener registered : listeners) {
+            if (registered == listener) return;
+        }
+        PokemonBattleListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = (PokemonBattleListener) listener;
+        listeners = updated;
     }
 
     @Override
     public void removeBattleListener(BattleListener listener) {
-        // Implementación vacía o lógica según tu necesidad
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                PokemonBattleListener[] updated = new PokemonBattleListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated.length == 0 ? NO_LISTENERS : updated;
+                return;
+            }
+        }
     }
 
     @Override
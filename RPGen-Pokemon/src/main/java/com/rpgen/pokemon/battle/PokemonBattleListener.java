@@ -3,10 +3,39 @@ package com.rpgen.pokemon.battle;
 import com.rpgen.core.battle.BattleListener;
 import com.rpgen.core.entity.Entity;
 
+// Se registra con PokemonBattleEngine.registerBattleListener y recibe cada suceso del combate en
+// onBattleEvent, dentro de la misma llamada que lo produce. Cada suceso es nuevo y no cambia después, así
+// que se puede guardar sin copiarlo. Por defecto reparte los sucesos entre los métodos específicos, así que
+// basta con sobrescribir los que interesen
 public interface PokemonBattleListener extends BattleListener {
-    void onPokemonSwitched(Entity pokemon, boolean isTeam1);
-    void onMoveSelected(Entity pokemon, String moveName);
-    void onTypeEffectiveness(double effectiveness);
-    void onStatusEffectApplied(Entity pokemon, String status);
-    void onStatusEffectRemoved(Entity pokemon, String status);
-} 
\ No newline at end of file
+    default void onBattleEvent(BattleEvent event) {
+        switch (event.getType()) {
+            case SWITCH:
+                onPokemonSwitched(event.getSource(), event.isTeam1());
+                break;
+            case MOVE_USED:
+                onMoveSelected(event.getSource(), event.getMove().getName());
+                break;
+            case DAMAGE:
+                onTypeEffectiveness(event.getEffectiveness());
+                break;
+            default:
+                break;
+        }
+    }
+
+    default void onPokemonSwitched(Entity pokemon, boolean isTeam1) {
+    }
+
+    default void onMoveSelected(Entity pokemon, String moveName) {
+    }
+
+    default void onTypeEffectiveness(double effectiveness) {
+    }
+
+    default void onStatusEffectApplied(Entity pokemon, String status) {
+    }
+
+    default void onStatusEffectRemoved(Entity pokemon, String status) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.rpgen.pokemon.battle;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Registro compartido de combates activos. Cada combate tiene su propio cerrojo para que dos peticiones
+// sobre el mismo combate se ejecuten en orden; los combates inactivos se expulsan periódicamente y
+// el número máximo de combates está acotado. Límites configurables por propiedades del sistema:
+//   rpgen.battles.max            número máximo de combates vivos (1000)
+//   rpgen.battles.idleTimeoutMs  tiempo sin actividad antes de expulsar un combate (30 minutos)
+public class PokemonBattleRegistry {
+    public static final int DEFAULT_MAX_BATTLES = 1000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final PokemonBattleRegistry instance = new PokemonBattleRegistry(
+        Integer.getInteger("rpgen.battles.max", DEFAULT_MAX_BATTLES),
+        Long.getLong("rpgen.battles.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT_MILLIS));
+
+    private final ConcurrentHashMap<String, Entry> battles = new ConcurrentHashMap<>();
+    private final AtomicInteger liveBattles = new AtomicInteger();
+    private final AtomicLong createdBattles = new AtomicLong();
+    private final AtomicLong evictedBattles = new AtomicLong();
+    private final AtomicLong removedBattles = new AtomicLong();
+    private final AtomicLong rejectedBattles = new AtomicLong();
+    private final int maxBattles;
+    private final long idleTimeoutMillis;
+    private final ScheduledExecutorService evictionScheduler;
+    // Reciben el id de cada combate que sale del registro, borrado o expulsado, con su cerrojo aún tomado
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public PokemonBattleRegistry(int maxBattles, long idleTimeoutMillis) {
+        this.maxBattles = Math.max(1, maxBattles);
+        this.idleTimeoutMillis = Math.max(1, idleTimeoutMillis);
+        this.evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pokemon-battle-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(this.idleTimeoutMillis / 4, TimeUnit.MINUTES.toMillis(1)));
+        evictionScheduler.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static PokemonBattleRegistry getInstance() {
+        return instance;
+    }
+
+    // Devuelve el id del combate registrado o null si se ha alcanzado el máximo
+    public String register(PokemonBattleEngine battle) {
+        if (!reserveSlot()) {
+            evictIdle();
+            if (!reserveSlot()) {
+                rejectedBattles.incrementAndGet();
+                System.err.println("Límite de combates alcanzado (" + maxBattles + ")");
+                return null;
+            }
+        }
+        String battleId = UUID.randomUUID().toString();
+        battles.put(battleId, new Entry(battle));
+        createdBattles.incrementAndGet();
+        return battleId;
+    }
+
+    // Bloquea el combate hasta cerrar el Lease; devuelve null si el combate no existe.
+    // Uso: try (PokemonBattleRegistry.Lease lease = registry.acquire(id)) { ... }
+    public Lease acquire(String battleId) {
+        if (battleId == null) return null;
+        Entry entry = battles.get(battleId);
+        if (entry == null) return null;
+        entry.lock.lock();
+        if (entry.removed) {
+            // Expulsado mientras esperábamos el cerrojo
+            entry.lock.unlock();
+            return null;
+        }
+        entry.touch();
+        return new Lease(entry);
+    }
+
+    public void addRemovalListener(Consumer<String> listener) {
+        removalListeners.add(Objects.requireNonNull(listener));
+    }
+
+    public boolean contains(String battleId) {
+        return battleId != null && battles.containsKey(battleId);
+    }
+
+    public boolean remove(String battleId) {
+        if (battleId == null) return false;
+        Entry entry = battles.get(battleId);
+        if (entry == null) return false;
+        entry.lock.lock();
+        try {
+            if (entry.removed || !battles.remove(battleId, entry)) return false;
+            entry.removed = true;
+            liveBattles.decrementAndGet();
+            removedBattles.incrementAndGet();
+            notifyRemoved(battleId);
+            return true;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    // Expulsa los combates sin actividad; los que están en uso en este momento se respetan
+    public int evictIdle() {
+        long threshold = System.currentTimeMillis() - idleTimeoutMillis;
+        int evicted = 0;
+        for (Map.Entry<String, Entry> mapEntry : battles.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            if (entry.lastAccess > threshold || !entry.lock.tryLock()) continue;
+            try {
+                if (!entry.removed && entry.lastAccess <= threshold && battles.remove(mapEntry.getKey(), entry)) {
+                    entry.removed = true;
+                    liveBattles.decrementAndGet();
+                    evictedBattles.incrementAndGet();
+                    notifyRemoved(mapEntry.getKey());
+                    evicted++;
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            System.out.println("Combates inactivos expulsados: " + evicted);
+        }
+        return evicted;
+    }
+
+    private void notifyRemoved(String battleId) {
+        for (Consumer<String> listener : removalListeners) {
+            try {
+                listener.accept(battleId);
+            } catch (RuntimeException e) {
+                System.err.println("Error al avisar de la salida del combate " + battleId + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = liveBattles.get();
+            if (current >= maxBattles) return false;
+            if (liveBattles.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public int getLiveBattles() {
+        return liveBattles.get();
+    }
+
+    public int getMaxBattles() {
+        return maxBattles;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getCreatedBattles() {
+        return createdBattles.get();
+    }
+
+    public long getEvictedBattles() {
+        return evictedBattles.get();
+    }
+
+    public long getRemovedBattles() {
+        return removedBattles.get();
+    }
+
+    public long getRejectedBattles() {
+        return rejectedBattles.get();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("live", getLiveBattles());
+        metrics.put("max", maxBattles);
+        metrics.put("idleTimeoutMillis", idleTimeoutMillis);
+        metrics.put("created", getCreatedBattles());
+        metrics.put("evicted", getEvictedBattles());
+        metrics.put("removed", getRemovedBattles());
+        metrics.put("rejected", getRejectedBattles());
+        return metrics;
+    }
+
+    public void shutdown() {
+        evictionScheduler.shutdownNow();
+    }
+
+    private static final class Entry {
+        private final PokemonBattleEngine battle;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long lastAccess = System.currentTimeMillis();
+        // Solo se modifica con el cerrojo tomado
+        private volatile boolean removed;
+
+        Entry(PokemonBattleEngine battle) {
+            this.battle = battle;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    public static final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public PokemonBattleEngine getBattle() {
+            return entry.battle;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            entry.touch();
+            entry.lock.unlock();
+        }
+    }
+}
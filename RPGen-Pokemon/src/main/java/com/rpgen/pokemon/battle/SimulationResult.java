@@ -0,0 +1,144 @@
+package com.rpgen.pokemon.battle;
+
+import java.util.*;
+
+public class SimulationResult {
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    private int iterations;
+    private int team1Wins;
+    private int team2Wins;
+    private int draws;
+    private long totalTurns;
+    private final DamageDistribution team1Damage = new DamageDistribution();
+    private final DamageDistribution team2Damage = new DamageDistribution();
+
+    // Acumula un combate; team1Damage es el daño infligido por el equipo 1 sobre el equipo 2
+    void accept(int winner, int turns, int team1DamageDealt, int team2MaxHealth, int team2DamageDealt, int team1MaxHealth) {
+        iterations++;
+        if (winner == 1) {
+            team1Wins++;
+        } else if (winner == 2) {
+            team2Wins++;
+        } else {
+            draws++;
+        }
+        totalTurns += turns;
+        team1Damage.accept(team1DamageDealt, team2MaxHealth);
+        team2Damage.accept(team2DamageDealt, team1MaxHealth);
+    }
+
+    void combine(SimulationResult other) {
+        iterations += other.iterations;
+        team1Wins += other.team1Wins;
+        team2Wins += other.team2Wins;
+        draws += other.draws;
+        totalTurns += other.totalTurns;
+        team1Damage.combine(other.team1Damage);
+        team2Damage.combine(other.team2Damage);
+    }
+
+    public int getIterations() { return iterations; }
+    public int getTeam1Wins() { return team1Wins; }
+    public int getTeam2Wins() { return team2Wins; }
+    public int getDraws() { return draws; }
+
+    public double getTeam1WinRate() {
+        return iterations == 0 ? 0.0 : (double) team1Wins / iterations;
+    }
+
+    public double getTeam2WinRate() {
+        return iterations == 0 ? 0.0 : (double) team2Wins / iterations;
+    }
+
+    public double getDrawRate() {
+        return iterations == 0 ? 0.0 : (double) draws / iterations;
+    }
+
+    public double getAverageTurns() {
+        return iterations == 0 ? 0.0 : (double) totalTurns / iterations;
+    }
+
+    public DamageDistribution getTeam1Damage() { return team1Damage; }
+    public DamageDistribution getTeam2Damage() { return team2Damage; }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("iterations", iterations);
+        map.put("team1Wins", team1Wins);
+        map.put("team2Wins", team2Wins);
+        map.put("draws", draws);
+        map.put("team1WinRate", getTeam1WinRate());
+        map.put("team2WinRate", getTeam2WinRate());
+        map.put("drawRate", getDrawRate());
+        map.put("averageTurns", getAverageTurns());
+        map.put("team1Damage", team1Damage.toMap());
+        map.put("team2Damage", team2Damage.toMap());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SimulationResult{iteraciones: %d, equipo1: %.2f%%, equipo2: %.2f%%, empates: %.2f%%, turnos medios: %.2f}",
+                iterations, getTeam1WinRate() * 100, getTeam2WinRate() * 100, getDrawRate() * 100, getAverageTurns());
+    }
+
+    // Distribución del daño total infligido por combate; el histograma agrupa por fracción de PS rivales
+    public static class DamageDistribution {
+        private long count;
+        private long sum;
+        private double sumOfSquares;
+        private int min = Integer.MAX_VALUE;
+        private int max;
+        private final long[] histogram = new long[HISTOGRAM_BUCKETS];
+
+        void accept(int damage, int opponentMaxHealth) {
+            count++;
+            sum += damage;
+            sumOfSquares += (double) damage * damage;
+            min = Math.min(min, damage);
+            max = Math.max(max, damage);
+            double fraction = opponentMaxHealth > 0 ? (double) damage / opponentMaxHealth : 0.0;
+            int bucket = (int) (fraction * HISTOGRAM_BUCKETS);
+            histogram[Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, bucket))]++;
+        }
+
+        void combine(DamageDistribution other) {
+            count += other.count;
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        public double getMean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        public double getStandardDeviation() {
+            if (count == 0) return 0.0;
+            double mean = getMean();
+            return Math.sqrt(Math.max(0.0, sumOfSquares / count - mean * mean));
+        }
+
+        public int getMin() { return count == 0 ? 0 : min; }
+        public int getMax() { return max; }
+
+        public long[] getHistogram() {
+            return histogram.clone();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("mean", getMean());
+            map.put("standardDeviation", getStandardDeviation());
+            map.put("min", getMin());
+            map.put("max", getMax());
+            map.put("histogram", getHistogram());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.rpgen.pokemon.data;
+
+import com.rpgen.pokemon.entity.Ability;
+
+import java.util.concurrent.*;
+
+// Catálogo global de habilidades. Cada URL se resuelve una sola vez (las peticiones en curso se comparten)
+// y cada habilidad se guarda como un par de instancias inmutables compartidas: la normal y la oculta, ya que
+// "oculta" depende de la especie y no de la habilidad. Del JSON solo se leen el id, el nombre y las
+// descripciones en español e inglés (PokeApiJson.ability); el resto se salta
+public final class AbilityDatabase {
+    private static final ConcurrentHashMap<String, CompletableFuture<Variants>> byUrl = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Variants> byId = new ConcurrentHashMap<>();
+
+    private AbilityDatabase() {
+    }
+
+    public static CompletableFuture<Ability> fetchAsync(String url, boolean hidden) {
+        return fetchAsync(url, hidden, false);
+    }
+
+    public static CompletableFuture<Ability> fetchAsync(String url, boolean hidden, boolean priority) {
+        CompletableFuture<Variants> future = byUrl.get(url);
+        if (future == null) {
+            CompletableFuture<Variants> created = new CompletableFuture<>();
+            future = byUrl.putIfAbsent(url, created);
+            if (future == null) {
+                future = created;
+                PokeApiClient.getAsync(url, PokeApiJson::ability, priority).whenComplete((ability, error) -> {
+                    if (error != null) {
+                        // Solo se recuerdan los fallos definitivos; los transitorios se reintentan al volver a pedirlo
+                        if (!PokeApiException.isPermanent(error)) byUrl.remove(url, created);
+                        created.completeExceptionally(error);
+                    } else {
+                        created.complete(publish(ability));
+                    }
+                });
+            }
+        } else if (priority && !future.isDone()) {
+            PokeApiClient.promote(url);
+        }
+        return future.thenApply(variants -> variants.get(hidden));
+    }
+
+    // Instancia canónica equivalente (mismo id y misma marca de oculta)
+    public static Ability intern(Ability ability) {
+        if (ability == null || ability.getId() == null) return ability;
+        Variants variants = byId.get(ability.getId());
+        if (variants == null) {
+            variants = byId.computeIfAbsent(ability.getId(), id -> new Variants(ability));
+        }
+        return variants.get(ability.isHidden());
+    }
+
+    public static Ability get(String id, boolean hidden) {
+        Variants variants = id != null ? byId.get(id) : null;
+        return variants != null ? variants.get(hidden) : null;
+    }
+
+    public static int size() {
+        return byId.size();
+    }
+
+    private static Variants publish(Ability ability) {
+        Variants variants = new Variants(ability);
+        Variants existing = byId.putIfAbsent(ability.getId(), variants);
+        return existing != null ? existing : variants;
+    }
+
+    private static final class Variants {
+        final Ability regular;
+        final Ability hidden;
+
+        Variants(Ability ability) {
+            this.regular = ability.isHidden() ? copy(ability, false) : ability;
+            this.hidden = ability.isHidden() ? ability : copy(ability, true);
+        }
+
+        Ability get(boolean isHidden) {
+            return isHidden ? hidden : regular;
+        }
+
+        private static Ability copy(Ability ability, boolean isHidden) {
+            return new Ability(ability.getId(), ability.getName(), ability.getDescription(), ability.getEffect(), isHidden);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.rpgen.pokemon.data;
+
+import com.rpgen.pokemon.entity.Ability;
+import com.rpgen.pokemon.entity.HeldItem;
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.Stats;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Dex compilada: especies, movimientos, habilidades y objetos en un fichero binario versionado que se
+// mapea en memoria al arrancar. Solo se leen la cabecera y el índice; cada especie se materializa al
+// pedirla. Las cadenas están deduplicadas en una tabla y se decodifican bajo demanda.
+//
+// Formato (big-endian):
+//   cabecera   MAGIC, VERSION, fecha, y para cada sección su número de elementos y posición
+//   cadenas    tabla de posiciones (int) + datos (u16 longitud + UTF-8)
+//   movimientos      nombre, tipo, categoría (índices de cadena, -1 = ninguno) y potencia
+//   habilidades      id, nombre, descripción, efecto
+//   objetos          id, nombre, descripción, efecto, categoría
+//   índice especies  id numérico + posición del registro, ordenado por id
+//   registro especie id, nombre, imagen, 6 estadísticas base, tipos, habilidades (+ oculta),
+//                    movimientos y movimientos seleccionados
+public final class DexSnapshot {
+    static final int MAGIC = 0x52504458; // "RPDX"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MOVE_SIZE = 16;
+    private static final int ABILITY_SIZE = 16;
+    private static final int ITEM_SIZE = 20;
+    private static final int INDEX_ENTRY_SIZE = 8;
+    private static final String FILE_NAME = "dex-snapshot.bin";
+
+    private static DexSnapshot defaultSnapshot;
+    private static boolean defaultLoaded;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int stringTablePos;
+    private final int moveCount;
+    private final int movesPos;
+    private final int abilityCount;
+    private final int abilitiesPos;
+    private final int itemCount;
+    private final int itemsPos;
+    private final int speciesCount;
+    private final int speciesIndexPos;
+    private final long createdAt;
+    // Caché de cadenas decodificadas; las carreras son benignas (mismo valor)
+    private final String[] strings;
+
+    private DexSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("No es un fichero de dex compilada");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Versión de dex compilada no soportada: " + version);
+        }
+        this.createdAt = buffer.getLong(8);
+        this.stringCount = buffer.getInt(16);
+        this.stringTablePos = buffer.getInt(20);
+        this.moveCount = buffer.getInt(24);
+        this.movesPos = buffer.getInt(28);
+        this.abilityCount = buffer.getInt(32);
+        this.abilitiesPos = buffer.getInt(36);
+        this.itemCount = buffer.getInt(40);
+        this.itemsPos = buffer.getInt(44);
+        this.speciesCount = buffer.getInt(48);
+        this.speciesIndexPos = buffer.getInt(52);
+        this.strings = new String[stringCount];
+    }
+
+    public static Path defaultPath() {
+        String configured = System.getProperty("rpgen.dex.snapshot");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return PokeApiCache.defaultDirectory().resolve(FILE_NAME);
+    }
+
+    // Dex compilada por defecto, abierta una sola vez; null si no existe o no es válida
+    public static synchronized DexSnapshot getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path path = defaultPath();
+            if (Files.isRegularFile(path)) {
+                try {
+                    defaultSnapshot = open(path);
+                } catch (IOException e) {
+                    System.err.println("No se pudo abrir la dex compilada " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return defaultSnapshot;
+    }
+
+    public static DexSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new DexSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return speciesCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    // Posición de la especie en el índice o -1
+    public int indexOf(String id) {
+        int numericId = PokemonStore.parseId(id);
+        if (numericId < 0) return -1;
+        int low = 0;
+        int high = speciesCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int candidate = buffer.getInt(speciesIndexPos + mid * INDEX_ENTRY_SIZE);
+            if (candidate < numericId) low = mid + 1;
+            else if (candidate > numericId) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public Pokemon materialize(int index) {
+        if (index < 0 || index >= speciesCount) return null;
+        int pos = buffer.getInt(speciesIndexPos + index * INDEX_ENTRY_SIZE + 4);
+        String id = string(buffer.getInt(pos));
+        String name = string(buffer.getInt(pos + 4));
+        String imageUrl = string(buffer.getInt(pos + 8));
+        pos += 12;
+        int hp = buffer.getInt(pos);
+        int attack = buffer.getInt(pos + 4);
+        int defense = buffer.getInt(pos + 8);
+        int specialAttack = buffer.getInt(pos + 12);
+        int specialDefense = buffer.getInt(pos + 16);
+        int speed = buffer.getInt(pos + 20);
+        pos += 24;
+
+        int typeCount = buffer.get(pos++) & 0xFF;
+        List<String> types = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++, pos += 4) {
+            types.add(string(buffer.getInt(pos)));
+        }
+
+        int abilityEntries = buffer.getShort(pos) & 0xFFFF;
+        pos += 2;
+        List<Ability> abilities = new ArrayList<>(abilityEntries);
+        for (int i = 0; i < abilityEntries; i++, pos += 5) {
+            int ability = abilitiesPos + buffer.getInt(pos) * ABILITY_SIZE;
+            abilities.add(AbilityDatabase.intern(new Ability(
+                string(buffer.getInt(ability)), string(buffer.getInt(ability + 4)),
+                string(buffer.getInt(ability + 8)), string(buffer.getInt(ability + 12)),
+                buffer.get(pos + 4) != 0)));
+        }
+
+        int moveEntries = buffer.getShort(pos) & 0xFFFF;
+        pos += 2;
+        List<Map<String, Object>> moves = new ArrayList<>(moveEntries);
+        for (int i = 0; i < moveEntries; i++, pos += 4) {
+            int move = movesPos + buffer.getInt(pos) * MOVE_SIZE;
+            Map<String, Object> moveData = new HashMap<>();
+            moveData.put("name", string(buffer.getInt(move)));
+            moveData.put("type", string(buffer.getInt(move + 4)));
+            String category = string(buffer.getInt(move + 8));
+            if (category != null) moveData.put("category", category);
+            moveData.put("power", buffer.getInt(move + 12));
+            moves.add(MoveDatabase.intern(moveData));
+        }
+
+        int selectedCount = buffer.get(pos++) & 0xFF;
+        List<Integer> selected = new ArrayList<>(selectedCount);
+        for (int i = 0; i < selectedCount; i++, pos += 2) {
+            selected.add(buffer.getShort(pos) & 0xFFFF);
+        }
+
+        Pokemon pokemon = new Pokemon(id, name, hp, attack, defense, types, speed,
+            specialAttack, specialDefense, imageUrl, moves);
+        pokemon.setAbilities(abilities);
+        pokemon.setSelectedMoveIndices(selected);
+        return pokemon;
+    }
+
+    public List<Pokemon> materializeAll() {
+        List<Pokemon> all = new ArrayList<>(speciesCount);
+        for (int i = 0; i < speciesCount; i++) {
+            all.add(materialize(i));
+        }
+        return all;
+    }
+
+    List<HeldItem> loadItems() {
+        List<HeldItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            int item = itemsPos + i * ITEM_SIZE;
+            items.add(ItemDatabase.createItem(
+                string(buffer.getInt(item)), string(buffer.getInt(item + 4)),
+                string(buffer.getInt(item + 8)), string(buffer.getInt(item + 12)),
+                string(buffer.getInt(item + 16))));
+        }
+        return items;
+    }
+
+    private String string(int index) {
+        if (index < 0 || index >= stringCount) return null;
+        String value = strings[index];
+        if (value == null) {
+            int pos = buffer.getInt(stringTablePos + index * 4);
+            int length = buffer.getShort(pos) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            buffer.get(pos + 2, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    // Compila las especies y objetos cargados; el fichero se sustituye de forma atómica
+    public static void export(Path path, List<Pokemon> species, Collection<HeldItem> items) throws IOException {
+        Writer writer = new Writer();
+        List<Pokemon> sorted = new ArrayList<>();
+        for (Pokemon pokemon : species) {
+            if (PokemonStore.parseId(pokemon.getId()) >= 0) sorted.add(pokemon);
+        }
+        sorted.sort(Comparator.comparingInt(pokemon -> PokemonStore.parseId(pokemon.getId())));
+
+        ByteArrayOutputStream speciesBytes = new ByteArrayOutputStream();
+        DataOutputStream speciesOut = new DataOutputStream(speciesBytes);
+        int[] speciesOffsets = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            speciesOffsets[i] = speciesOut.size();
+            writer.writeSpecies(speciesOut, sorted.get(i));
+        }
+        List<HeldItem> itemList = new ArrayList<>(items);
+        for (HeldItem item : itemList) {
+            writer.intern(item.getId());
+            writer.intern(item.getName());
+            writer.intern(item.getDescription());
+            writer.intern(item.getEffect());
+            writer.intern(item.getCategory());
+        }
+
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        DataOutputStream stringOut = new DataOutputStream(stringData);
+        int[] stringOffsets = new int[writer.strings.size()];
+        for (int i = 0; i < writer.strings.size(); i++) {
+            stringOffsets[i] = stringOut.size();
+            byte[] bytes = writer.strings.get(i).getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, 0xFFFF);
+            stringOut.writeShort(length);
+            stringOut.write(bytes, 0, length);
+        }
+
+        int stringTablePos = HEADER_SIZE;
+        int stringDataPos = stringTablePos + stringOffsets.length * 4;
+        int movesPos = stringDataPos + stringOut.size();
+        int abilitiesPos = movesPos + writer.moves.size() * MOVE_SIZE;
+        int itemsPos = abilitiesPos + writer.abilities.size() * ABILITY_SIZE;
+        int speciesIndexPos = itemsPos + itemList.size() * ITEM_SIZE;
+        int speciesDataPos = speciesIndexPos + sorted.size() * INDEX_ENTRY_SIZE;
+
+        ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(speciesDataPos + speciesOut.size());
+        DataOutputStream out = new DataOutputStream(fileBytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(stringOffsets.length);
+        out.writeInt(stringTablePos);
+        out.writeInt(writer.moves.size());
+        out.writeInt(movesPos);
+        out.writeInt(writer.abilities.size());
+        out.writeInt(abilitiesPos);
+        out.writeInt(itemList.size());
+        out.writeInt(itemsPos);
+        out.writeInt(sorted.size());
+        out.writeInt(speciesIndexPos);
+        while (out.size() < HEADER_SIZE) out.writeByte(0);
+
+        for (int offset : stringOffsets) out.writeInt(stringDataPos + offset);
+        stringData.writeTo(out);
+        for (int[] move : writer.moves) {
+            for (int value : move) out.writeInt(value);
+        }
+        for (int[] ability : writer.abilities) {
+            for (int value : ability) out.writeInt(value);
+        }
+        for (HeldItem item : itemList) {
+            out.writeInt(writer.intern(item.getId()));
+            out.writeInt(writer.intern(item.getName()));
+            out.writeInt(writer.intern(item.getDescription()));
+            out.writeInt(writer.intern(item.getEffect()));
+            out.writeInt(writer.intern(item.getCategory()));
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            out.writeInt(PokemonStore.parseId(sorted.get(i).getId()));
+            out.writeInt(speciesDataPos + speciesOffsets[i]);
+        }
+        speciesBytes.writeTo(out);
+        out.flush();
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), FILE_NAME, ".tmp");
+        try {
+            Files.write(temp, fileBytes.toByteArray());
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        System.out.println("Dex compilada exportada: " + sorted.size() + " especies, " + itemList.size()
+            + " objetos, " + fileBytes.size() / 1024 + " KB en " + path);
+    }
+
+    // Estado de la exportación: tablas deduplicadas de cadenas, movimientos y habilidades
+    private static final class Writer {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIndex = new HashMap<>();
+        final List<int[]> moves = new ArrayList<>();
+        final Map<String, Integer> moveIndex = new HashMap<>();
+        final List<int[]> abilities = new ArrayList<>();
+        final Map<String, Integer> abilityIndex = new HashMap<>();
+
+        int intern(String value) {
+            if (value == null) return -1;
+            Integer index = stringIndex.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.add(value);
+                stringIndex.put(value, index);
+            }
+            return index;
+        }
+
+        int move(Map<String, Object> moveData) {
+            String name = (String) moveData.get("name");
+            String type = (String) moveData.get("type");
+            String category = (String) moveData.get("category");
+            Object powerValue = moveData.get("power");
+            int power = powerValue instanceof Number ? ((Number) powerValue).intValue() : 0;
+            String key = name + '|' + type + '|' + category + '|' + power;
+            Integer index = moveIndex.get(key);
+            if (index == null) {
+                index = moves.size();
+                moves.add(new int[] {intern(name), intern(type), intern(category), power});
+                moveIndex.put(key, index);
+            }
+            return index;
+        }
+
+        int ability(Ability ability) {
+            String key = ability.getId() + '|' + ability.getName();
+            Integer index = abilityIndex.get(key);
+            if (index == null) {
+                index = abilities.size();
+                abilities.add(new int[] {intern(ability.getId()), intern(ability.getName()),
+                    intern(ability.getDescription()), intern(ability.getEffect())});
+                abilityIndex.put(key, index);
+            }
+            return index;
+        }
+
+        void writeSpecies(DataOutputStream out, Pokemon pokemon) throws IOException {
+            out.writeInt(intern(pokemon.getId()));
+            out.writeInt(intern(pokemon.getName()));
+            out.writeInt(intern(pokemon.getImageUrl()));
+            // Estadísticas base tal y como se pasaron al constructor (los PS de Stats son la mitad)
+            Stats stats = pokemon.getStats();
+            out.writeInt(stats.getHp() * 2);
+            out.writeInt(stats.getAttack());
+            out.writeInt(stats.getDefense());
+            out.writeInt(stats.getSpecialAttack());
+            out.writeInt(stats.getSpecialDefense());
+            out.writeInt(stats.getSpeed());
+
+            List<String> types = pokemon.getTypes() != null ? pokemon.getTypes() : List.of();
+            out.writeByte(types.size());
+            for (String type : types) out.writeInt(intern(type));
+
+            List<Ability> abilities = pokemon.getAbilities();
+            out.writeShort(abilities.size());
+            for (Ability ability : abilities) {
+                out.writeInt(ability(ability));
+                out.writeByte(ability.isHidden() ? 1 : 0);
+            }
+
+            List<Map<String, Object>> moveList = pokemon.getMoves() != null ? pokemon.getMoves() : List.of();
+            out.writeShort(moveList.size());
+            for (Map<String, Object> moveData : moveList) out.writeInt(move(moveData));
+
+            List<Integer> selected = pokemon.getSelectedMoveIndices() != null ? pokemon.getSelectedMoveIndices() : List.of();
+            out.writeByte(selected.size());
+            for (Integer index : selected) out.writeShort(index);
+        }
+    }
+}
@@ -1,26 +1,23 @@
 package com.rpgen.pokemon.data;
 
 import java.util.*;
-import java.net.http.*;
-import java.net.URI;
-import java.time.Duration;
 import java.util.concurrent.*;
-import com.google.gson.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import com.rpgen.pokemon.entity.HeldItem;
 
 public class ItemDatabase {
-    private static final String POKE_API_BASE_URL = "https://pokeapi.co/api/v2";
+    private static final String POKE_API_BASE_URL = PokeApiClient.BASE_URL;
     private static final List<String> RELEVANT_CATEGORIES = List.of(
         "stat-boosts", "held-items", "choice", "bad-held-items", "species-specific", "type-enhancement", "type-protection", "in-a-pinch", "picky-healing", "plates"
     );
     private static final Map<String, HeldItem> items = new ConcurrentHashMap<>();
-    private static final HttpClient httpClient = HttpClient.newBuilder()
-        .connectTimeout(Duration.ofSeconds(10))
-        .version(HttpClient.Version.HTTP_1_1)
-        .build();
-    private static final Gson gson = new Gson();
-    private static final ExecutorService itemExecutor = Executors.newFixedThreadPool(2);
     private static volatile boolean initialized = false;
+    private static final AtomicInteger failedItems = new AtomicInteger();
+    // Peticiones de categorías y objetos aún sin respuesta; -1 mientras no ha empezado la carga
+    private static final AtomicInteger pendingRequests = new AtomicInteger(-1);
+    // Cambia con cada objeto añadido; sirve como clave para las respuestas cacheadas
+    private static final AtomicLong version = new AtomicLong();
     private static final List<String> PREFERRED_VERSIONS = List.of(
         "scarlet-violet", "sword-shield", "brilliant-diamond-shining-pearl", "lets-go-pikachu-lets-go-eevee", "ultra-sun-ultra-moon", "sun-moon", "omega-ruby-alpha-sapphire", "x-y", "black-2-white-2", "black-white", "heartgold-soulsilver", "platinum", "diamond-pearl", "firered-leafgreen", "emerald", "ruby-sapphire"
     );
@@ -124,135 +121,97 @@ public class ItemDatabase {
     public static void initialize() {
         if (initialized) return;
         initialized = true;
-        CompletableFuture.runAsync(ItemDatabase::loadAllRelevantItems, itemExecutor);
+        DexSnapshot snapshot = DexSnapshot.getDefault();
+        if (snapshot != null && snapshot.getItemCount() > 0) {
+            for (HeldItem item : snapshot.loadItems()) {
+                items.put(item.getId(), item);
+            }
+            version.incrementAndGet();
+            pendingRequests.set(0);
+            System.out.println("Objetos cargados desde la dex compilada: " + items.size());
+            return;
+        }
+        loadAllRelevantItems();
     }
     
+    // Sin hilos propios: las peticiones van por el limitador global de PokeApiClient
     private static void loadAllRelevantItems() {
-        try {
-            for (String category : RELEVANT_CATEGORIES) {
-                String url = POKE_API_BASE_URL + "/item-category/" + category + "/";
-                HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-                JsonObject json = gson.fromJson(response.body(), JsonObject.class);
-                JsonArray itemsArray = json.getAsJsonArray("items");
-                for (JsonElement itemElem : itemsArray) {
-                    JsonObject itemObj = itemElem.getAsJsonObject();
-                    String itemUrl = itemObj.get("url").getAsString();
-                    CompletableFuture.runAsync(() -> loadItemDetails(itemUrl, category), itemExecutor);
+        pendingRequests.set(RELEVANT_CATEGORIES.size());
+        for (String category : RELEVANT_CATEGORIES) {
+            String url = POKE_API_BASE_URL + "/item-category/" + category + "/";
+            PokeApiClient.getAsync(url, body -> PokeApiJson.resourceUrls(body, "items")).thenAccept(itemUrls -> {
+                // Los objetos se cuentan antes de soltar la categoría para que el contador no pase por cero
+                pendingRequests.addAndGet(itemUrls.size());
+                for (String itemUrl : itemUrls) {
+                    loadItemDetails(itemUrl, category);
                 }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+            }).exceptionally(error -> {
+                failedItems.incrementAndGet();
+                System.err.println("No se pudo cargar la categoría de objetos " + category + ": " + describe(error));
+                return null;
+            }).whenComplete((ignored, error) -> pendingRequests.decrementAndGet());
         }
     }
     
     private static void loadItemDetails(String url, String category) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            JsonObject itemData = gson.fromJson(response.body(), JsonObject.class);
-            String id = itemData.get("name").getAsString();
-            String name = getLocalizedName(itemData, "es");
-            String description = getLocalizedDescription(itemData, "es");
-            String effect = getLocalizedEffect(itemData, "es");
-            Map<String, Double> statModifiers = new HashMap<>();
-            Map<String, Object> extraEffects = new HashMap<>();
-            // Aplicar efectos automáticos
-            applyAutoEffects(id, category, name);
-            // Aplicar efectos manuales si existen
-            if (MANUAL_EFFECTS.containsKey(id)) {
-                Map<String, Object> manual = MANUAL_EFFECTS.get(id);
-                if (manual.containsKey("statModifiers")) {
-                    Object modsObj = manual.get("statModifiers");
-                    if (modsObj instanceof Map<?, ?> modsMap) {
-                        for (Map.Entry<?, ?> entry : modsMap.entrySet()) {
-                            if (entry.getKey() instanceof String key && entry.getValue() instanceof Number value) {
-                                statModifiers.put(key, value.doubleValue());
-                            }
+        // Solo se leen el nombre y los textos en el idioma pedido (o sus alternativas), sin árbol JSON
+        PokeApiClient.getAsync(url, body -> PokeApiJson.item(body, "es", PREFERRED_VERSIONS)).thenAccept(text -> {
+            HeldItem item = createItem(text.id, text.name, text.description, text.effect, category);
+            items.put(text.id, item);
+            version.incrementAndGet();
+        }).exceptionally(error -> {
+            // Un objeto que falla no detiene la carga global, pero queda registrado
+            failedItems.incrementAndGet();
+            System.err.println("No se pudo cargar el objeto " + url + ": " + describe(error));
+            return null;
+        }).whenComplete((ignored, error) -> pendingRequests.decrementAndGet());
+    }
+
+    // true si la lista de objetos está completa: vino de la dex compilada o todas sus peticiones han
+    // terminado sin fallos. Solo entonces se puede guardar en la dex
+    public static boolean isComplete() {
+        return pendingRequests.get() == 0 && failedItems.get() == 0;
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    public static long getVersion() {
+        return version.get();
+    }
+
+    public static int getFailedItemCount() {
+        return failedItems.get();
+    }
+
+    // Construye el objeto con sus efectos automáticos y manuales; lo usan la carga desde PokeAPI y la de DexSnapshot
+    static HeldItem createItem(String id, String name, String description, String effect, String category) {
+        Map<String, Double> statModifiers = new HashMap<>();
+        Map<String, Object> extraEffects = new HashMap<>();
+        // Aplicar efectos automáticos
+        applyAutoEffects(id, category, name);
+        // Aplicar efectos manuales si existen
+        if (MANUAL_EFFECTS.containsKey(id)) {
+            Map<String, Object> manual = MANUAL_EFFECTS.get(id);
+            if (manual.containsKey("statModifiers")) {
+                Object modsObj = manual.get("statModifiers");
+                if (modsObj instanceof Map<?, ?> modsMap) {
+                    for (Map.Entry<?, ?> entry : modsMap.entrySet()) {
+                        if (entry.getKey() instanceof String key && entry.getValue() instanceof Number value) {
+                            statModifiers.put(key, value.doubleValue());
                         }
                     }
                 }
-                for (Map.Entry<String, Object> entry : manual.entrySet()) {
-                    if (!entry.getKey().equals("statModifiers")) {
-                        extraEffects.put(entry.getKey(), entry.getValue());
-                    }
-                }
             }
-            HeldItem item = new HeldItem(id, name, description, effect, statModifiers, category, extraEffects);
-            items.put(id, item);
-        } catch (Exception e) {
-            // Silenciar errores individuales para no detener la carga global
-        }
-    }
-    
-    private static String getLocalizedName(JsonObject itemData, String lang) {
-        JsonArray names = itemData.getAsJsonArray("names");
-        for (JsonElement elem : names) {
-            JsonObject obj = elem.getAsJsonObject();
-            if (obj.getAsJsonObject("language").get("name").getAsString().equals(lang)) {
-                return obj.get("name").getAsString();
-            }
-        }
-        return itemData.get("name").getAsString();
-    }
-    
-    private static String getLocalizedDescription(JsonObject itemData, String lang) {
-        JsonArray flavorTexts = itemData.getAsJsonArray("flavor_text_entries");
-        String best = null;
-        int bestPriority = Integer.MAX_VALUE;
-        String fallbackEn = null;
-        String fallback = null;
-        for (JsonElement elem : flavorTexts) {
-            JsonObject obj = elem.getAsJsonObject();
-            String language = obj.getAsJsonObject("language").get("name").getAsString();
-            String text = obj.get("text").getAsString();
-            String version = obj.has("version_group") ? obj.getAsJsonObject("version_group").get("name").getAsString() : "";
-            if (language.equals(lang)) {
-                int priority = PREFERRED_VERSIONS.indexOf(version);
-                if (priority == -1) priority = Integer.MAX_VALUE - 1; // Si no está en la lista, menos preferido
-                if (priority < bestPriority) {
-                    best = text;
-                    bestPriority = priority;
+            for (Map.Entry<String, Object> entry : manual.entrySet()) {
+                if (!entry.getKey().equals("statModifiers")) {
+                    extraEffects.put(entry.getKey(), entry.getValue());
                 }
             }
-            if (language.equals("en") && fallbackEn == null) {
-                fallbackEn = text;
-            }
-            if (fallback == null) fallback = text;
-        }
-        if (best != null) return best;
-        if (fallbackEn != null) return fallbackEn;
-        if (fallback != null) return fallback;
-        return "Sin descripción disponible";
-    }
-    
-    private static String getLocalizedEffect(JsonObject itemData, String lang) {
-        JsonArray effectEntries = itemData.getAsJsonArray("effect_entries");
-        String latest = null;
-        String fallbackEn = null;
-        String fallback = null;
-        for (JsonElement elem : effectEntries) {
-            JsonObject obj = elem.getAsJsonObject();
-            String language = obj.getAsJsonObject("language").get("name").getAsString();
-            String effect = obj.get("effect").getAsString();
-            if (language.equals(lang) && latest == null) {
-                latest = effect;
-            }
-            if (language.equals("en") && fallbackEn == null) {
-                fallbackEn = effect;
-            }
-            if (fallback == null) fallback = effect;
         }
-        if (latest != null) return latest;
-        if (fallbackEn != null) return fallbackEn;
-        if (fallback != null) return fallback;
-        return "Sin efecto disponible";
+        return new HeldItem(id, name, description, effect, statModifiers, category, extraEffects);
     }
     
     public static HeldItem getItem(String id) {
@@ -266,7 +225,7 @@ public class ItemDatabase {
     public static HeldItem getRandomItem() {
         List<HeldItem> itemList = new ArrayList<>(items.values());
         if (itemList.isEmpty()) return null;
-        return itemList.get(new Random().nextInt(itemList.size()));
+        return itemList.get(ThreadLocalRandom.current().nextInt(itemList.size()));
     }
     
     public static Map<String, Object> getAllItemsAsMap() {
@@ -0,0 +1,104 @@
+package com.rpgen.pokemon.data;
+
+import com.rpgen.pokemon.entity.DamageMove;
+import com.rpgen.pokemon.entity.PokemonMove;
+import com.rpgen.pokemon.entity.StatusMove;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Catálogo global de movimientos. Cada URL de PokeAPI se descarga una sola vez aunque la pidan cientos de
+// especies a la vez (las peticiones en curso se comparten), y cada movimiento se guarda como una definición
+// inmutable única por id. Las especies comparten esas definiciones y las instancias de PokemonMove
+public final class MoveDatabase {
+    private static final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> byUrl = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Map<String, Object>> definitions = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, PokemonMove> moves = new ConcurrentHashMap<>();
+
+    private MoveDatabase() {
+    }
+
+    // Definición compartida del movimiento de esa URL; solo se descarga la primera vez que se pide
+    public static CompletableFuture<Map<String, Object>> fetchAsync(String url) {
+        return fetchAsync(url, false);
+    }
+
+    public static CompletableFuture<Map<String, Object>> fetchAsync(String url, boolean priority) {
+        CompletableFuture<Map<String, Object>> future = byUrl.get(url);
+        if (future == null) {
+            CompletableFuture<Map<String, Object>> created = new CompletableFuture<>();
+            future = byUrl.putIfAbsent(url, created);
+            if (future == null) {
+                download(url, priority, created);
+                return created;
+            }
+        }
+        if (priority && !future.isDone()) PokeApiClient.promote(url);
+        return future;
+    }
+
+    private static void download(String url, boolean priority, CompletableFuture<Map<String, Object>> created) {
+        PokeApiClient.getAsync(url, PokeApiJson::move, priority).thenApply(MoveDatabase::intern).whenComplete((move, error) -> {
+            if (error != null) {
+                // Solo se recuerdan los fallos definitivos (404...); los transitorios se reintentan al volver a pedirlo
+                if (!PokeApiException.isPermanent(error)) byUrl.remove(url, created);
+                created.completeExceptionally(error);
+            } else {
+                created.complete(move);
+            }
+        });
+    }
+
+    // Devuelve la definición canónica (inmutable) para ese movimiento. Se identifica por "id" o,
+    // si no lo trae, por su nombre, que pasa a ser también su id
+    public static Map<String, Object> intern(Map<String, Object> move) {
+        Object id = move.get("id");
+        if (id == null) id = move.get("name");
+        if (id == null) return Collections.unmodifiableMap(new HashMap<>(move));
+        String key = id.toString();
+        Map<String, Object> existing = definitions.get(key);
+        if (existing != null) return existing;
+        Map<String, Object> definition = new HashMap<>(move);
+        definition.put("id", key);
+        existing = definitions.putIfAbsent(key, Collections.unmodifiableMap(definition));
+        return existing != null ? existing : definitions.get(key);
+    }
+
+    public static Map<String, Object> getDefinition(String id) {
+        return id != null ? definitions.get(id) : null;
+    }
+
+    // Instancia compartida de PokemonMove para ese id; null si el movimiento no está en el catálogo
+    public static PokemonMove getMove(String id) {
+        if (id == null) return null;
+        PokemonMove move = moves.get(id);
+        if (move == null) {
+            Map<String, Object> definition = definitions.get(id);
+            if (definition == null) return null;
+            move = moves.computeIfAbsent(id, key -> createMove(definition));
+        }
+        return move;
+    }
+
+    // Construye un movimiento a partir de sus datos sueltos, con los valores por defecto para lo que falte.
+    // Lo usan el catálogo, Pokemon.initializeMoves para los que no están en él y la decodificación de BattleJson
+    public static PokemonMove createMove(Map<String, Object> moveData) {
+        String id = (String) moveData.getOrDefault("id", "move_" + System.currentTimeMillis());
+        String name = (String) moveData.getOrDefault("name", "Movimiento");
+        String type = (String) moveData.getOrDefault("type", "normal");
+        String category = (String) moveData.getOrDefault("category", "physical");
+        int power = ((Number) moveData.getOrDefault("power", 40)).intValue();
+        int accuracy = ((Number) moveData.getOrDefault("accuracy", 100)).intValue();
+        String description = (String) moveData.getOrDefault("description", "Un movimiento básico");
+        String statusEffect = (String) moveData.get("statusEffect");
+
+        if (statusEffect != null) {
+            return new StatusMove(id, name, type, category, power, accuracy, description, statusEffect);
+        }
+        return new DamageMove(id, name, type, category, power, accuracy, description);
+    }
+
+    public static int size() {
+        return definitions.size();
+    }
+}
@@ -1,14 +1,21 @@
 package com.rpgen.pokemon.data;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
+import com.rpgen.pokemon.random.BattleRandom;
 import com.rpgen.pokemon.entity.Nature;
 
 public class NatureDatabase {
     private static final Map<String, Nature> natures = new HashMap<>();
+    // Copia ordenada por id para elegir naturalezas aleatorias sin reservar memoria en cada llamada
+    private static final Nature[] natureArray;
     
     static {
         initializeNatures();
+        natureArray = natures.values().stream()
+            .sorted(Comparator.comparing(Nature::getId))
+            .toArray(Nature[]::new);
     }
     
     private static void initializeNatures() {
@@ -54,8 +61,11 @@ public class NatureDatabase {
     }
     
     public static Nature getRandomNature() {
-        List<Nature> natureList = new ArrayList<>(natures.values());
-        return natureList.get(new Random().nextInt(natureList.size()));
+        return natureArray[ThreadLocalRandom.current().nextInt(natureArray.length)];
+    }
+    
+    public static Nature getRandomNature(BattleRandom random) {
+        return natureArray[random.nextInt(natureArray.length)];
     }
     
     public static Map<String, Object> getAllNaturesAsMap() {
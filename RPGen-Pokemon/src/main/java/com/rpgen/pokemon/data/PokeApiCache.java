@@ -0,0 +1,172 @@
+package com.rpgen.pokemon.data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+// Caché persistente en disco de las respuestas de PokeAPI. Cada URL se guarda en dos ficheros dentro de
+// un subdirectorio por prefijo del hash: <hash>.json con el cuerpo y <hash>.meta con ETag, Last-Modified
+// y fecha de descarga. Las escrituras son atómicas (fichero temporal + move) para no dejar entradas a medias
+public final class PokeApiCache {
+    private static final String BODY_SUFFIX = ".json";
+    private static final String META_SUFFIX = ".meta";
+
+    private final Path directory;
+
+    public PokeApiCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public static Path defaultDirectory() {
+        String configured = System.getProperty("rpgen.cache.dir");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".rpgen", "pokeapi-cache");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Entry read(String url) {
+        Path body = bodyPath(url);
+        Path meta = metaPath(url);
+        if (!Files.isRegularFile(body) || !Files.isRegularFile(meta)) return null;
+        try {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            // Protección frente a colisiones de hash
+            if (!url.equals(properties.getProperty("url"))) return null;
+            long fetchedAt = Long.parseLong(properties.getProperty("fetchedAt", "0"));
+            return new Entry(url, body, properties.getProperty("etag"), properties.getProperty("lastModified"), fetchedAt);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Entrada de caché corrupta para " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void write(String url, byte[] body, String etag, String lastModified) throws IOException {
+        write(url, body, etag, lastModified, System.currentTimeMillis());
+    }
+
+    // Con la fecha de descarga indicada; las pruebas lo usan para preparar entradas antiguas
+    void write(String url, byte[] body, String etag, String lastModified, long fetchedAt) throws IOException {
+        Path bodyFile = bodyPath(url);
+        Files.createDirectories(bodyFile.getParent());
+        writeAtomically(bodyFile, body);
+        writeMeta(url, etag, lastModified, fetchedAt);
+    }
+
+    // Fichero temporal junto a la entrada para que la descarga se escriba directamente en disco
+    public Path newTempFile(String url) throws IOException {
+        Path bodyFile = bodyPath(url);
+        Files.createDirectories(bodyFile.getParent());
+        return Files.createTempFile(bodyFile.getParent(), bodyFile.getFileName().toString(), ".tmp");
+    }
+
+    // Publica como cuerpo de la entrada un fichero ya descargado (de newTempFile) y devuelve su ruta final
+    public Path commit(String url, Path downloaded, String etag, String lastModified) throws IOException {
+        Path bodyFile = bodyPath(url);
+        try {
+            Files.move(downloaded, bodyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(downloaded, bodyFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        writeMeta(url, etag, lastModified, System.currentTimeMillis());
+        return bodyFile;
+    }
+
+    // Respuesta 304: el cuerpo sigue siendo válido, solo se renueva la fecha y los validadores
+    public void touch(Entry entry, String etag, String lastModified) throws IOException {
+        writeMeta(entry.url,
+            etag != null ? etag : entry.etag,
+            lastModified != null ? lastModified : entry.lastModified,
+            System.currentTimeMillis());
+    }
+
+    private void writeMeta(String url, String etag, String lastModified, long fetchedAt) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("url", url);
+        if (etag != null) properties.setProperty("etag", etag);
+        if (lastModified != null) properties.setProperty("lastModified", lastModified);
+        properties.setProperty("fetchedAt", Long.toString(fetchedAt));
+        StringWriter writer = new StringWriter();
+        properties.store(writer, null);
+        Path metaFile = metaPath(url);
+        Files.createDirectories(metaFile.getParent());
+        writeAtomically(metaFile, writer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path bodyPath(String url) {
+        String hash = hash(url);
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + BODY_SUFFIX);
+    }
+
+    private Path metaPath(String url) {
+        String hash = hash(url);
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + META_SUFFIX);
+    }
+
+    private static String hash(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class Entry {
+        private final String url;
+        private final Path body;
+        private final String etag;
+        private final String lastModified;
+        private final long fetchedAt;
+
+        private Entry(String url, Path body, String etag, String lastModified, long fetchedAt) {
+            this.url = url;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public String getUrl() { return url; }
+        public Path getBodyPath() { return body; }
+        public String getEtag() { return etag; }
+        public String getLastModified() { return lastModified; }
+        public long getFetchedAt() { return fetchedAt; }
+
+        public String readBody() throws IOException {
+            return Files.readString(body, StandardCharsets.UTF_8);
+        }
+
+        public Reader openBody() throws IOException {
+            return Files.newBufferedReader(body, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,680 @@
+package com.rpgen.pokemon.data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cliente compartido de PokeAPI con caché persistente en disco. Primero se consulta la caché; las entradas
+// recientes se sirven sin red y las antiguas se revalidan con If-None-Match / If-Modified-Since.
+// Hacia la red cada petición pasa por un token bucket (que se frena solo ante un 429), un límite de
+// concurrencia y un circuit breaker; los 429, 5xx y errores de red se reintentan con backoff exponencial
+// y jitter, respetando Retry-After. Los cuerpos se descargan directamente al fichero de la caché (nunca como
+// String o byte[] completos) y los parsers los leen desde ahí en streaming.
+// Propiedades del sistema:
+//   rpgen.pokeapi.url              URL base de la API (https://pokeapi.co/api/v2); útil para pruebas locales
+//   rpgen.cache.dir                directorio de la caché (~/.rpgen/pokeapi-cache)
+//   rpgen.cache.maxAgeHours        antigüedad a partir de la cual se revalida una entrada (720 = 30 días)
+//   rpgen.offline                  si es true nunca se accede a la red; solo se sirve lo que haya en caché
+//   rpgen.pokeapi.concurrency      peticiones simultáneas máximas contra PokeAPI (10)
+//   rpgen.pokeapi.ratePerSecond    peticiones por segundo sostenidas (20)
+//   rpgen.pokeapi.maxRetries       reintentos por petición (4)
+//   rpgen.pokeapi.breakerFailures  fallos seguidos que abren el circuito (8)
+//   rpgen.pokeapi.breakerOpenMs    tiempo que el circuito permanece abierto (30000)
+public final class PokeApiClient {
+    public static final String BASE_URL = baseUrl();
+
+    private static final long BASE_BACKOFF_MILLIS = 250;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+    // Un Retry-After mayor que esto no se espera: se falla (o se sirve la copia antigua) y se reintenta luego
+    private static final long MAX_RETRY_AFTER_MILLIS = 60_000;
+
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .version(HttpClient.Version.HTTP_1_1)
+        .build();
+    private static final PokeApiCache cache = new PokeApiCache(PokeApiCache.defaultDirectory());
+    private static final boolean offline = Boolean.getBoolean("rpgen.offline");
+    private static final long maxAgeMillis = TimeUnit.HOURS.toMillis(Long.getLong("rpgen.cache.maxAgeHours", 720));
+    private static final int maxRetries = Math.max(0, Integer.getInteger("rpgen.pokeapi.maxRetries", 4));
+    private static final Limiter limiter = new Limiter(Math.max(1, Integer.getInteger("rpgen.pokeapi.concurrency", 10)));
+    private static final TokenBucket rateLimiter = new TokenBucket(Math.max(1, Integer.getInteger("rpgen.pokeapi.ratePerSecond", 20)));
+    private static final CircuitBreaker breaker = new CircuitBreaker(
+        Math.max(1, Integer.getInteger("rpgen.pokeapi.breakerFailures", 8)),
+        Math.max(1, Long.getLong("rpgen.pokeapi.breakerOpenMs", 30_000)));
+    private static final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Call> calls = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong revalidated = new AtomicLong();
+    private static final AtomicLong downloads = new AtomicLong();
+
+    private PokeApiClient() {
+    }
+
+    private static String baseUrl() {
+        String configured = System.getProperty("rpgen.pokeapi.url", "https://pokeapi.co/api/v2").trim();
+        return configured.endsWith("/") ? configured.substring(0, configured.length() - 1) : configured;
+    }
+
+    public static boolean isOffline() {
+        return offline;
+    }
+
+    public static HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public static PokeApiCache getCache() {
+        return cache;
+    }
+
+    // Lee el cuerpo de una respuesta en streaming, sin cargarlo antes entero en memoria
+    public interface BodyParser<T> {
+        T parse(Reader body) throws IOException;
+    }
+
+    // Versión bloqueante; pasa por el mismo limitador y la misma coalescencia que getAsync
+    public static String get(String url) throws IOException, InterruptedException {
+        try {
+            return getAsync(url).get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    public static CompletableFuture<String> getAsync(String url) {
+        return getAsync(url, PokeApiClient::readAll);
+    }
+
+    public static <T> CompletableFuture<T> getAsync(String url, BodyParser<T> parser) {
+        return getAsync(url, parser, false);
+    }
+
+    // El cuerpo se descarga directamente al fichero de la caché y el parser lo lee desde ahí en streaming.
+    // Las peticiones prioritarias (algo que un usuario está esperando) se atienden antes que la carga en
+    // segundo plano; si la URL ya estaba en cola como normal, se adelanta
+    public static <T> CompletableFuture<T> getAsync(String url, BodyParser<T> parser, boolean priority) {
+        return fetch(url, priority).thenApply(body -> {
+            try (Reader reader = Files.newBufferedReader(body, StandardCharsets.UTF_8)) {
+                return parser.parse(reader);
+            } catch (IOException e) {
+                throw new CompletionException(new IOException("Respuesta no válida de " + url + ": " + e.getMessage(), e));
+            }
+        });
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringWriter writer = new StringWriter();
+        reader.transferTo(writer);
+        return writer.toString();
+    }
+
+    // Las entradas recientes de la caché se sirven al momento. El resto comparte una única petición en curso
+    // por URL y espera turno en los limitadores, sin ocupar ningún hilo mientras espera
+    private static CompletableFuture<Path> fetch(String url, boolean priority) {
+        PokeApiCache.Entry cached = cache.read(url);
+        if (cached != null && (offline || System.currentTimeMillis() - cached.getFetchedAt() < maxAgeMillis)) {
+            cacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached.getBodyPath());
+        }
+        if (offline) {
+            return CompletableFuture.failedFuture(new IOException("Modo sin conexión y sin caché para " + url));
+        }
+
+        CompletableFuture<Path> pending = inFlight.get(url);
+        if (pending == null) {
+            CompletableFuture<Path> created = new CompletableFuture<>();
+            pending = inFlight.putIfAbsent(url, created);
+            if (pending == null) {
+                created.whenComplete((body, error) -> inFlight.remove(url, created));
+                start(url, cached, priority, created);
+                return created;
+            }
+        }
+        if (priority) promote(url);
+        return pending;
+    }
+
+    // Adelanta una petición que ya está en cola; no hace nada si no la hay
+    public static void promote(String url) {
+        Call call = calls.get(url);
+        if (call != null && !call.priority) {
+            call.priority = true;
+            expedite(call);
+            CompletableFuture<Void> waiter = call.waiter;
+            if (waiter != null) limiter.promote(waiter);
+        }
+    }
+
+    // Una petición que esperaba token como normal deja de hacer cola tras la carga en segundo plano;
+    // solo sigue esperando si hay una pausa por Retry-After
+    private static void expedite(Call call) {
+        CompletableFuture<Void> tokenWait = call.tokenWait;
+        if (tokenWait == null || tokenWait.isDone()) return;
+        long pauseNanos = rateLimiter.pauseNanos();
+        if (pauseNanos <= 0) {
+            tokenWait.complete(null);
+        } else {
+            CompletableFuture.delayedExecutor(pauseNanos, TimeUnit.NANOSECONDS).execute(() -> tokenWait.complete(null));
+        }
+    }
+
+    private static void start(String url, PokeApiCache.Entry cached, boolean priority, CompletableFuture<Path> created) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+            if (cached != null) {
+                if (cached.getEtag() != null) builder.header("If-None-Match", cached.getEtag());
+                if (cached.getLastModified() != null) builder.header("If-Modified-Since", cached.getLastModified());
+            }
+            Call call = new Call(url, builder.build(), cached, metricsFor(url), created);
+            call.priority = priority;
+            calls.put(url, call);
+            created.whenComplete((body, error) -> calls.remove(url, call));
+            call.metrics.requests.incrementAndGet();
+            attempt(call);
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        }
+    }
+
+    private static void attempt(Call call) {
+        if (!breaker.tryAcquire()) {
+            call.metrics.rejected.incrementAndGet();
+            fail(call, new PokeApiException("Circuito abierto: PokeAPI no disponible temporalmente", 0, true));
+            return;
+        }
+        CompletableFuture<Void> tokenWait = rateLimiter.acquire(call.priority);
+        call.tokenWait = tokenWait;
+        // Pudo promoverse mientras se reservaba el token
+        if (call.priority) expedite(call);
+        tokenWait
+            .thenCompose(ignored -> {
+                CompletableFuture<Void> waiter = limiter.acquire(call.priority);
+                call.waiter = waiter;
+                // Pudo promoverse mientras esperaba token
+                if (call.priority) limiter.promote(waiter);
+                return waiter;
+            })
+            .thenCompose(ignored -> send(call))
+            .whenComplete((response, error) -> onResponse(call, response, error));
+    }
+
+    private static CompletableFuture<HttpResponse<Path>> send(Call call) {
+        long start = System.nanoTime();
+        call.metrics.attempts.incrementAndGet();
+        try {
+            call.download = newDownloadFile(call.url);
+            return httpClient.sendAsync(call.request, HttpResponse.BodyHandlers.ofFile(call.download))
+                .whenComplete((response, error) -> {
+                    limiter.release();
+                    call.metrics.recordLatency(System.nanoTime() - start);
+                });
+        } catch (IOException e) {
+            limiter.release();
+            throw new CompletionException(e);
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    // La descarga va a un temporal junto a su entrada de caché; si la caché no admite escrituras, al de sistema
+    private static Path newDownloadFile(String url) throws IOException {
+        try {
+            return cache.newTempFile(url);
+        } catch (IOException e) {
+            Path temp = Files.createTempFile("pokeapi", ".json");
+            temp.toFile().deleteOnExit();
+            return temp;
+        }
+    }
+
+    private static void discardDownload(Call call) {
+        Path download = call.download;
+        call.download = null;
+        if (download == null) return;
+        try {
+            Files.deleteIfExists(download);
+        } catch (IOException ignored) {
+            // Es un temporal; si no se puede borrar ahora no afecta a la caché
+        }
+    }
+
+    private static void onResponse(Call call, HttpResponse<Path> response, Throwable error) {
+        try {
+            if (error != null || response.statusCode() != 200) {
+                discardDownload(call);
+            }
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                retryOrFail(call, new PokeApiException("Error de red al pedir " + call.url + ": " + cause, cause), 0);
+                return;
+            }
+            int status = response.statusCode();
+            if (status == 429) {
+                call.metrics.throttled.incrementAndGet();
+                long retryAfter = retryAfterMillis(response);
+                rateLimiter.throttle(retryAfter);
+                retryOrFail(call, new PokeApiException("PokeAPI respondió 429 para " + call.url, status, true), retryAfter);
+                return;
+            }
+            if (status >= 500) {
+                retryOrFail(call, new PokeApiException("PokeAPI respondió " + status + " para " + call.url, status, true), 0);
+                return;
+            }
+
+            // Cualquier respuesta que no sea 429/5xx (también un 404) indica que el servicio está sano
+            breaker.recordSuccess();
+            rateLimiter.recover();
+            Path body = handleResponse(call, response);
+            call.metrics.successes.incrementAndGet();
+            call.result.complete(body);
+        } catch (Exception e) {
+            call.metrics.failures.incrementAndGet();
+            call.result.completeExceptionally(e);
+        }
+    }
+
+    private static void retryOrFail(Call call, PokeApiException error, long retryAfterMillis) {
+        breaker.recordFailure();
+        if (call.attempt < maxRetries && retryAfterMillis <= MAX_RETRY_AFTER_MILLIS && !breaker.isOpen()) {
+            long delay = Math.max(backoffMillis(call.attempt), retryAfterMillis);
+            call.attempt++;
+            call.metrics.retries.incrementAndGet();
+            // Mientras espera no ocupa permiso de concurrencia; al reintentar vuelve a la cola
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> attempt(call));
+            return;
+        }
+        fail(call, error);
+    }
+
+    private static void fail(Call call, PokeApiException error) {
+        call.metrics.failures.incrementAndGet();
+        if (call.cached != null) {
+            // Sin servicio: mejor un dato antiguo que ninguno
+            call.metrics.staleServed.incrementAndGet();
+            call.result.complete(call.cached.getBodyPath());
+            return;
+        }
+        call.result.completeExceptionally(error);
+    }
+
+    private static Path handleResponse(Call call, HttpResponse<Path> response) throws IOException {
+        String url = call.url;
+        PokeApiCache.Entry cached = call.cached;
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (response.statusCode() == 304 && cached != null) {
+            revalidated.incrementAndGet();
+            cache.touch(cached, etag, lastModified);
+            return cached.getBodyPath();
+        }
+        if (response.statusCode() != 200) {
+            if (cached != null) return cached.getBodyPath();
+            throw new PokeApiException("PokeAPI respondió " + response.statusCode() + " para " + url,
+                response.statusCode(), false);
+        }
+
+        downloads.incrementAndGet();
+        Path download = call.download;
+        call.download = null;
+        try {
+            return cache.commit(url, download, etag, lastModified);
+        } catch (IOException e) {
+            // Se sirve igualmente desde el temporal; la próxima vez se volverá a descargar
+            System.err.println("No se pudo guardar en caché " + url + ": " + e.getMessage());
+            return download;
+        }
+    }
+
+    // Backoff exponencial con jitter: entre la mitad y el total de base * 2^intento
+    private static long backoffMillis(int attempt) {
+        long cap = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt, 16));
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    // Retry-After en segundos o como fecha HTTP; 0 si no viene o no se entiende
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) return 0;
+        value = value.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Métricas por recurso de la API: /pokemon/25 -> "pokemon", /move/1 -> "move"
+    private static EndpointMetrics metricsFor(String url) {
+        String endpoint = "other";
+        if (url.startsWith(BASE_URL)) {
+            String path = url.substring(BASE_URL.length());
+            int start = path.startsWith("/") ? 1 : 0;
+            int end = start;
+            while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') end++;
+            if (end > start) endpoint = path.substring(start, end);
+        }
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+    }
+
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("baseUrl", BASE_URL);
+        metrics.put("offline", offline);
+        metrics.put("cacheHits", cacheHits.get());
+        metrics.put("revalidated", revalidated.get());
+        metrics.put("downloads", downloads.get());
+        metrics.put("inFlight", inFlight.size());
+        metrics.put("queued", limiter.queued());
+        metrics.put("queuedPriority", limiter.queuedPriority());
+        metrics.put("maxConcurrency", limiter.permits);
+        metrics.put("ratePerSecond", rateLimiter.getRate());
+        metrics.put("circuit", breaker.getState());
+        metrics.put("circuitOpenings", breaker.getOpenings());
+        Map<String, Object> byEndpoint = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> byEndpoint.put(name, endpoint.toMap()));
+        metrics.put("endpoints", byEndpoint);
+        return metrics;
+    }
+
+    public static int getMaxConcurrency() {
+        return limiter.permits;
+    }
+
+    public static int getInFlight() {
+        return inFlight.size();
+    }
+
+    public static int getQueued() {
+        return limiter.queued();
+    }
+
+    public static long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public static long getRevalidated() {
+        return revalidated.get();
+    }
+
+    public static long getDownloads() {
+        return downloads.get();
+    }
+
+    // Una petición lógica a la red, con sus reintentos
+    private static final class Call {
+        final String url;
+        final HttpRequest request;
+        final PokeApiCache.Entry cached;
+        final EndpointMetrics metrics;
+        final CompletableFuture<Path> result;
+        int attempt;
+        Path download;
+        volatile boolean priority;
+        // Espera de token y de turno en curso; promote las adelanta
+        volatile CompletableFuture<Void> tokenWait;
+        volatile CompletableFuture<Void> waiter;
+
+        Call(String url, HttpRequest request, PokeApiCache.Entry cached, EndpointMetrics metrics,
+             CompletableFuture<Path> result) {
+            this.url = url;
+            this.request = request;
+            this.cached = cached;
+            this.metrics = metrics;
+            this.result = result;
+        }
+    }
+
+    private static final class EndpointMetrics {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong attempts = new AtomicLong();
+        final AtomicLong successes = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong throttled = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong staleServed = new AtomicLong();
+        final AtomicLong latencyNanos = new AtomicLong();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        void recordLatency(long nanos) {
+            latencyNanos.addAndGet(nanos);
+            maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            long attemptCount = attempts.get();
+            map.put("requests", requests.get());
+            map.put("attempts", attemptCount);
+            map.put("successes", successes.get());
+            map.put("failures", failures.get());
+            map.put("retries", retries.get());
+            map.put("throttled", throttled.get());
+            map.put("rejectedByCircuit", rejected.get());
+            map.put("staleServed", staleServed.get());
+            map.put("avgLatencyMs", attemptCount > 0 ? latencyNanos.get() / attemptCount / 1_000_000.0 : 0.0);
+            map.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000.0);
+            return map;
+        }
+    }
+
+    // Limitador de concurrencia no bloqueante: quien no tiene permiso recibe un futuro que se completa al
+    // liberarse uno, en lugar de dormir un hilo como haría un Semaphore. Hay dos colas en orden de llegada y
+    // la prioritaria se atiende siempre antes
+    private static final class Limiter {
+        private final int permits;
+        private final ArrayDeque<CompletableFuture<Void>> priorityWaiters = new ArrayDeque<>();
+        private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int available;
+
+        Limiter(int permits) {
+            this.permits = permits;
+            this.available = permits;
+        }
+
+        synchronized CompletableFuture<Void> acquire(boolean priority) {
+            if (available > 0) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            (priority ? priorityWaiters : waiters).add(waiter);
+            return waiter;
+        }
+
+        synchronized void promote(CompletableFuture<Void> waiter) {
+            if (waiters.remove(waiter)) {
+                priorityWaiters.add(waiter);
+            }
+        }
+
+        void release() {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = priorityWaiters.poll();
+                if (next == null) next = waiters.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            // El permiso pasa directamente al siguiente, fuera del cerrojo
+            next.complete(null);
+        }
+
+        synchronized int queued() {
+            return waiters.size() + priorityWaiters.size();
+        }
+
+        synchronized int queuedPriority() {
+            return priorityWaiters.size();
+        }
+    }
+
+    // Token bucket por reservas: cada petición toma un token aunque el saldo quede negativo y espera lo que
+    // tarde en reponerse, sin dormir ningún hilo. Ante un 429 se detiene hasta Retry-After y reduce el ritmo
+    // a la mitad; cada respuesta sana lo recupera poco a poco hasta el configurado
+    private static final class TokenBucket {
+        private static final double MIN_RATE = 1.0;
+
+        private final double maxRate;
+        private double rate;
+        private double tokens;
+        private long updatedAt = System.nanoTime();
+        private long throttledAt = updatedAt - TimeUnit.SECONDS.toNanos(2);
+
+        TokenBucket(double ratePerSecond) {
+            this.maxRate = ratePerSecond;
+            this.rate = ratePerSecond;
+            this.tokens = ratePerSecond;
+        }
+
+        // Las prioritarias no esperan detrás de las reservas de la carga en segundo plano, pero sí respetan
+        // una pausa por Retry-After; su token se descuenta igualmente y lo pagan las siguientes
+        CompletableFuture<Void> acquire(boolean priority) {
+            long waitNanos = priority ? reservePriority() : reserve();
+            if (waitNanos <= 0) return CompletableFuture.completedFuture(null);
+            return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+        }
+
+        private synchronized long reserve() {
+            long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+            // updatedAt puede estar en el futuro si hay una pausa por Retry-After
+            long wait = Math.max(0, updatedAt - now);
+            if (tokens < 0) wait += (long) Math.ceil(-tokens / rate * 1e9);
+            return wait;
+        }
+
+        private synchronized long reservePriority() {
+            long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+            return Math.max(0, updatedAt - now);
+        }
+
+        private void refill(long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(maxRate, tokens + (now - updatedAt) / 1e9 * rate);
+                updatedAt = now;
+            }
+        }
+
+        synchronized void throttle(long pauseMillis) {
+            long now = System.nanoTime();
+            refill(now);
+            // Varios 429 de peticiones que ya estaban en vuelo cuentan como uno solo
+            if (now - throttledAt > TimeUnit.SECONDS.toNanos(1)) {
+                rate = Math.max(MIN_RATE, rate / 2);
+                throttledAt = now;
+            }
+            tokens = Math.min(tokens, 0);
+            long until = now + TimeUnit.MILLISECONDS.toNanos(Math.min(pauseMillis, MAX_RETRY_AFTER_MILLIS));
+            if (until > updatedAt) updatedAt = until;
+        }
+
+        // Lo que queda de la pausa por Retry-After, si la hay
+        synchronized long pauseNanos() {
+            return Math.max(0, updatedAt - System.nanoTime());
+        }
+
+        synchronized void recover() {
+            if (rate < maxRate) rate = Math.min(maxRate, rate + maxRate / 20);
+        }
+
+        synchronized double getRate() {
+            return rate;
+        }
+    }
+
+    // Tras demasiados fallos seguidos deja de llamar a la red durante un tiempo (las peticiones fallan al
+    // momento o sirven la copia de caché). Pasado ese tiempo deja pasar una sola petición de prueba
+    private static final class CircuitBreaker {
+        private final int failureThreshold;
+        private final long openNanos;
+        private String state = "closed";
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+        private long openings;
+
+        CircuitBreaker(int failureThreshold, long openMillis) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state.equals("open")) {
+                if (System.nanoTime() - openedAt < openNanos) return false;
+                state = "half-open";
+                trialInFlight = false;
+            }
+            if (state.equals("half-open")) {
+                if (trialInFlight) return false;
+                trialInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            state = "closed";
+        }
+
+        synchronized void recordFailure() {
+            consecutiveFailures++;
+            if (state.equals("half-open") || (state.equals("closed") && consecutiveFailures >= failureThreshold)) {
+                state = "open";
+                openedAt = System.nanoTime();
+                trialInFlight = false;
+                openings++;
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return state.equals("open");
+        }
+
+        synchronized String getState() {
+            return state;
+        }
+
+        synchronized long getOpenings() {
+            return openings;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.rpgen.pokemon.data;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+// Fallo de una petición a PokeAPI. Los reintentables (429, 5xx, red, circuito abierto) pueden volver a
+// pedirse más tarde; el resto (404 y demás 4xx) no van a cambiar por mucho que se repitan
+public class PokeApiException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final boolean retryable;
+
+    public PokeApiException(String message, int statusCode, boolean retryable) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryable = retryable;
+    }
+
+    public PokeApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+        this.retryable = true;
+    }
+
+    // 0 si no hubo respuesta HTTP
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    // true si el error (o la causa de la CompletionException que lo envuelve) es un fallo definitivo de PokeAPI
+    static boolean isPermanent(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof PokeApiException && !((PokeApiException) cause).isRetryable();
+    }
+}
@@ -0,0 +1,396 @@
+package com.rpgen.pokemon.data;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.rpgen.pokemon.entity.Ability;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+// Extractores en streaming de las respuestas de PokeAPI. Leen el cuerpo token a token, se quedan solo con
+// los campos que se mapean y saltan el resto de subárboles (p. ej. version_group_details de cada movimiento
+// o las entradas de texto en idiomas que no se usan) sin construir árboles JsonObject
+final class PokeApiJson {
+    private static final String NO_DESCRIPTION = "Sin descripción disponible";
+    private static final String NO_EFFECT = "Sin efecto disponible";
+
+    private PokeApiJson() {
+    }
+
+    // URLs de un listado: "results" de /pokemon?offset=..., "items" de /item-category/...
+    static List<String> resourceUrls(Reader body, String arrayField) throws IOException {
+        List<String> urls = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(arrayField) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        String url = objectField(reader, "url");
+                        if (url != null) urls.add(url);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return urls;
+    }
+
+    static Species species(Reader body) throws IOException {
+        Species species = new Species();
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        species.id = nextString(reader);
+                        break;
+                    case "name":
+                        species.name = nextString(reader);
+                        break;
+                    case "stats":
+                        // Mismo orden que devuelve la API: hp, attack, defense, special-attack, special-defense, speed
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            int baseStat = 0;
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                if (reader.nextName().equals("base_stat") && reader.peek() == JsonToken.NUMBER) {
+                                    baseStat = reader.nextInt();
+                                } else {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
+                            species.stats.add(baseStat);
+                        }
+                        reader.endArray();
+                        break;
+                    case "types":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            String type = nestedResourceField(reader, "type", "name");
+                            if (type != null) species.types.add(type);
+                        }
+                        reader.endArray();
+                        break;
+                    case "sprites":
+                        species.imageUrl = officialArtwork(reader);
+                        break;
+                    case "abilities":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            String url = null;
+                            boolean hidden = false;
+                            reader.beginObject();
+                            while (reader.hasNext()) {
+                                String field = reader.nextName();
+                                if (field.equals("ability") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                                    url = objectField(reader, "url");
+                                } else if (field.equals("is_hidden") && reader.peek() == JsonToken.BOOLEAN) {
+                                    hidden = reader.nextBoolean();
+                                } else {
+                                    reader.skipValue();
+                                }
+                            }
+                            reader.endObject();
+                            if (url != null) {
+                                species.abilityUrls.add(url);
+                                species.abilityHidden.add(hidden);
+                            }
+                        }
+                        reader.endArray();
+                        break;
+                    case "moves":
+                        // De cada movimiento solo interesa su URL; los detalles por versión se saltan enteros
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            String url = nestedResourceField(reader, "move", "url");
+                            if (url != null) species.moveUrls.add(url);
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        if (species.id == null || species.name == null || species.stats.size() < 6) {
+            throw new IOException("Respuesta de especie incompleta");
+        }
+        return species;
+    }
+
+    // Definición de movimiento con el mismo formato que usa Pokemon: id, name, power, type, category
+    static Map<String, Object> move(Reader body) throws IOException {
+        String name = null;
+        int power = 0;
+        String type = null;
+        String category = null;
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name":
+                        name = nextString(reader);
+                        break;
+                    case "power":
+                        if (reader.peek() == JsonToken.NUMBER) power = reader.nextInt();
+                        else reader.skipValue();
+                        break;
+                    case "type":
+                        type = objectField(reader, "name");
+                        break;
+                    case "damage_class":
+                        category = objectField(reader, "name");
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        if (name == null) {
+            throw new IOException("Movimiento sin nombre");
+        }
+        Map<String, Object> move = new HashMap<>();
+        move.put("id", name);
+        move.put("name", name);
+        move.put("power", power);
+        if (type != null) move.put("type", type);
+        if (category != null) move.put("category", category);
+        return move;
+    }
+
+    // Habilidad (no oculta) con la primera descripción en español o, si no hay, en inglés
+    static Ability ability(Reader body) throws IOException {
+        String id = null;
+        String name = null;
+        String spanish = null;
+        String english = null;
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = nextString(reader);
+                        break;
+                    case "name":
+                        name = nextString(reader);
+                        break;
+                    case "flavor_text_entries":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            TextEntry entry = textEntry(reader, "flavor_text");
+                            // Se queda con la primera entrada de cada idioma
+                            if ("es".equals(entry.language) && spanish == null) spanish = entry.text;
+                            else if ("en".equals(entry.language) && english == null) english = entry.text;
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        if (id == null || name == null) {
+            throw new IOException("Habilidad sin id o nombre");
+        }
+        String description = spanish != null ? spanish : english != null ? english : NO_DESCRIPTION;
+        return new Ability(id, name, description, "", false);
+    }
+
+    // Textos de un objeto en el idioma pedido, con las mismas preferencias que antes: la descripción de la
+    // versión más reciente de la lista y, a falta de ella, la primera en inglés o la primera que haya
+    static ItemText item(Reader body, String lang, List<String> preferredVersions) throws IOException {
+        ItemText item = new ItemText();
+        String localizedName = null;
+        String bestDescription = null;
+        int bestPriority = Integer.MAX_VALUE;
+        String descriptionEn = null;
+        String anyDescription = null;
+        String effect = null;
+        String effectEn = null;
+        String anyEffect = null;
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name":
+                        item.id = nextString(reader);
+                        break;
+                    case "names":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            TextEntry entry = textEntry(reader, "name");
+                            if (lang.equals(entry.language) && localizedName == null) localizedName = entry.text;
+                        }
+                        reader.endArray();
+                        break;
+                    case "flavor_text_entries":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            TextEntry entry = textEntry(reader, "text");
+                            if (entry.text == null) continue;
+                            if (lang.equals(entry.language)) {
+                                int priority = preferredVersions.indexOf(entry.versionGroup != null ? entry.versionGroup : "");
+                                if (priority == -1) priority = Integer.MAX_VALUE - 1; // Si no está en la lista, menos preferido
+                                if (priority < bestPriority) {
+                                    bestDescription = entry.text;
+                                    bestPriority = priority;
+                                }
+                            }
+                            if ("en".equals(entry.language) && descriptionEn == null) descriptionEn = entry.text;
+                            if (anyDescription == null) anyDescription = entry.text;
+                        }
+                        reader.endArray();
+                        break;
+                    case "effect_entries":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            TextEntry entry = textEntry(reader, "effect");
+                            if (entry.text == null) continue;
+                            if (lang.equals(entry.language) && effect == null) effect = entry.text;
+                            if ("en".equals(entry.language) && effectEn == null) effectEn = entry.text;
+                            if (anyEffect == null) anyEffect = entry.text;
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        if (item.id == null) {
+            throw new IOException("Objeto sin nombre");
+        }
+        item.name = localizedName != null ? localizedName : item.id;
+        item.description = bestDescription != null ? bestDescription
+            : descriptionEn != null ? descriptionEn
+            : anyDescription != null ? anyDescription : NO_DESCRIPTION;
+        item.effect = effect != null ? effect : effectEn != null ? effectEn : anyEffect != null ? anyEffect : NO_EFFECT;
+        return item;
+    }
+
+    // sprites.other.official-artwork.front_default; null si falta en cualquier nivel
+    private static String officialArtwork(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String imageUrl = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("other") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("official-artwork") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        imageUrl = objectField(reader, "front_default");
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return imageUrl;
+    }
+
+    // Entrada de texto localizada: {"<textField>": ..., "language": {"name": ...}, "version_group": {"name": ...}}
+    private static TextEntry textEntry(JsonReader reader, String textField) throws IOException {
+        TextEntry entry = new TextEntry();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (field.equals(textField)) {
+                entry.text = nextString(reader);
+            } else if (field.equals("language")) {
+                entry.language = objectField(reader, "name");
+            } else if (field.equals("version_group")) {
+                entry.versionGroup = objectField(reader, "name");
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return entry;
+    }
+
+    // {"<outer>": {"<field>": ...}, ...} -> valor del campo interior
+    private static String nestedResourceField(JsonReader reader, String outer, String field) throws IOException {
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(outer)) {
+                value = objectField(reader, field);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    // Lee un objeto y devuelve el valor de uno de sus campos de texto; null si no es un objeto o no lo tiene
+    private static String objectField(JsonReader reader, String field) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(field)) {
+                value = nextString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    // Texto o número como cadena; null para null u otros tipos
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static final class TextEntry {
+        String text;
+        String language;
+        String versionGroup;
+    }
+
+    static final class Species {
+        String id;
+        String name;
+        final List<Integer> stats = new ArrayList<>(6);
+        final List<String> types = new ArrayList<>(2);
+        String imageUrl;
+        final List<String> abilityUrls = new ArrayList<>(3);
+        final List<Boolean> abilityHidden = new ArrayList<>(3);
+        final List<String> moveUrls = new ArrayList<>();
+    }
+
+    static final class ItemText {
+        String id;
+        String name;
+        String description;
+        String effect;
+    }
+}
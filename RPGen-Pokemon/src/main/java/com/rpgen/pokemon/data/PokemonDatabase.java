@@ -2,335 +2,302 @@ package com.rpgen.pokemon.data;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.net.http.*;
-import java.net.URI;
-import java.time.Duration;
-import com.google.gson.*;
+import java.util.concurrent.atomic.AtomicLong;
 import com.rpgen.pokemon.entity.Pokemon;
 import com.rpgen.pokemon.entity.Ability;
+import com.rpgen.pokemon.entity.HeldItem;
 
 
 public class PokemonDatabase {
-    private static final String POKE_API_BASE_URL = "https://pokeapi.co/api/v2";
+    private static final String POKE_API_BASE_URL = PokeApiClient.BASE_URL;
     private static final int BATCH_SIZE = 10;
-    private static final Set<Pokemon> pokemonSet = Collections.synchronizedSet(new TreeSet<>((p1, p2) -> 
-        Integer.compare(Integer.parseInt(p1.getId()), Integer.parseInt(p2.getId()))
-    ));
-    private static final Set<String> loadedPokemonIds = Collections.synchronizedSet(new HashSet<>());
-    private static int currentOffset = 0;
-    private static boolean hasMore = true;
-    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private static final HttpClient httpClient = HttpClient.newBuilder()
-        .connectTimeout(Duration.ofSeconds(10))
-        .version(HttpClient.Version.HTTP_1_1)
-        .build();
-    private static final Gson gson = new Gson();
+    // Lotes descargándose a la vez. Todas sus peticiones pasan por el limitador global de PokeApiClient,
+    // así que esto solo decide cuánto trabajo hay en cola, no cuántas conexiones se abren
+    private static final int BATCHES_IN_FLIGHT = Math.max(1, Integer.getInteger("rpgen.loader.batchesInFlight", 2));
+    // Los reintentos de cada petición los hace PokeApiClient; esto es la espera antes de repetir un lote
+    // entero que no se pudo completar, que crece con los fallos seguidos
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    private static final PokemonStore store = new PokemonStore();
+    // Estado del cargador, protegido por el cerrojo de la clase
+    private static int nextOffset = 0;
+    private static int activeBatches = 0;
+    private static final Deque<Integer> retryOffsets = new ArrayDeque<>();
+    private static boolean stopped = false;
+    private static int consecutiveFailures = 0;
+    private static volatile boolean hasMore = true;
     private static final int TOTAL_POKEMON = 1302;
-    private static final Semaphore requestSemaphore = new Semaphore(10); // Aumentado a 20 peticiones simultáneas
-    private static final ExecutorService pokemonExecutor = Executors.newFixedThreadPool(2); // Pool para procesar Pokémon
+    // Dex compilada: si existe, las especies se materializan desde ella bajo demanda y no se descarga nada
+    private static volatile DexSnapshot dexSnapshot;
+    // Especies pedidas que aún no había cargado el recorrido: se descargan con prioridad, una vez por id
+    private static final ConcurrentHashMap<String, CompletableFuture<Pokemon>> demands = new ConcurrentHashMap<>();
+    // Ids que PokeAPI ha dado por inexistentes, para no volver a preguntar en cada petición
+    private static final Set<String> missing = ConcurrentHashMap.newKeySet();
+    private static final int MAX_MISSING = 1024;
+    private static final long DEMAND_WAIT_MILLIS = Long.getLong("rpgen.demand.waitMs", 5_000);
+    private static final AtomicLong modifications = new AtomicLong();
 
     public static void initialize() {
-        // Cargar el primer lote
-        loadNextBatch();
-        
-        // Programar la carga del siguiente lote
-        scheduler.scheduleAtFixedRate(() -> {
-            if (hasMore) {
-                loadNextBatch();
-            }
-        }, 0, 500, TimeUnit.MILLISECONDS); // Aumentado a 500ms entre lotes
+        DexSnapshot snapshot = DexSnapshot.getDefault();
+        if (snapshot != null && snapshot.size() > 0) {
+            dexSnapshot = snapshot;
+            hasMore = false;
+            System.out.println("Dex compilada cargada: " + snapshot.size() + " especies");
+            return;
+        }
+
+        // Carga en segundo plano sin hilos propios: cada lote que termina lanza el siguiente
+        for (int i = 0; i < BATCHES_IN_FLIGHT; i++) {
+            loadBatchesInBackground();
+        }
     }
 
+    // Carga un lote y espera a que termine (lo usa /api/pokemon/load-more)
     public static void loadNextBatch() {
-        if (!hasMore) return;
-
+        int offset = claimOffset();
+        if (offset < 0) return;
+        boolean retry = false;
         try {
-            String url = POKE_API_BASE_URL + "/pokemon?offset=" + currentOffset + "&limit=" + BATCH_SIZE;
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            JsonObject jsonResponse = gson.fromJson(response.body(), JsonObject.class);
-            JsonArray results = jsonResponse.getAsJsonArray("results");
-
-            List<CompletableFuture<Pokemon>> pokemonFutures = new ArrayList<>();
-            CountDownLatch latch = new CountDownLatch(results.size());
-
-            for (JsonElement element : results) {
-                JsonObject pokemon = element.getAsJsonObject();
-                String pokemonUrl = pokemon.get("url").getAsString();
-                String pokemonId = pokemonUrl.split("/")[6];
-                
-                if (loadedPokemonIds.contains(pokemonId)) {
-                    latch.countDown();
-                    continue;
-                }
-                
-                CompletableFuture<Pokemon> future = CompletableFuture.supplyAsync(() -> {
-                    try {
-                        return loadPokemonDetails(pokemonUrl);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        return null;
-                    } finally {
-                        latch.countDown();
-                    }
-                }, pokemonExecutor);
-                
-                pokemonFutures.add(future);
+            loadBatchAsync(offset).join();
+        } catch (CompletionException e) {
+            retry = handleBatchFailure(offset, e);
+        } finally {
+            finishBatch();
+        }
+        // El lote fallido vuelve a la cola, pero si las cadenas de fondo ya han terminado nadie lo recogería
+        if (retry) {
+            scheduleRetry();
+        }
+    }
+
+    private static void loadBatchesInBackground() {
+        int offset = claimOffset();
+        if (offset < 0) return;
+        loadBatchAsync(offset).whenComplete((ignored, error) -> {
+            boolean retry = error != null && handleBatchFailure(offset, error);
+            finishBatch();
+            if (retry) {
+                scheduleRetry();
+            } else {
+                loadBatchesInBackground();
             }
+        });
+    }
 
-            // Esperar a que todos los Pokémon del lote se carguen
-            latch.await();
+    // Espera creciente antes de reintentar para no martillear la API si está caída
+    private static void scheduleRetry() {
+        CompletableFuture.runAsync(PokemonDatabase::loadBatchesInBackground,
+            CompletableFuture.delayedExecutor(retryDelayMillis(), TimeUnit.MILLISECONDS));
+    }
 
-            // Recopilar los resultados
-            for (CompletableFuture<Pokemon> future : pokemonFutures) {
-                try {
-                    Pokemon pokemon = future.get();
-                    if (pokemon != null) {
-                        synchronized (pokemonSet) {
-                            pokemonSet.add(pokemon);
-                            loadedPokemonIds.add(pokemon.getId());
-                        }
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+    // Reserva el siguiente desplazamiento (primero los lotes fallidos); -1 si no queda nada por pedir
+    private static synchronized int claimOffset() {
+        if (stopped) return -1;
+        Integer retry = retryOffsets.poll();
+        if (retry != null) {
+            activeBatches++;
+            return retry;
+        }
+        if (nextOffset >= TOTAL_POKEMON) return -1;
+        int offset = nextOffset;
+        nextOffset += BATCH_SIZE;
+        activeBatches++;
+        return offset;
+    }
+
+    // Devuelve true si el lote se ha vuelto a encolar
+    private static boolean handleBatchFailure(int offset, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        synchronized (PokemonDatabase.class) {
+            if (PokeApiClient.isOffline()) {
+                // Sin conexión solo se puede cargar lo que ya está en caché
+                System.out.println("Modo sin conexión: carga detenida en el desplazamiento " + offset);
+                stopped = true;
+                return false;
             }
+            retryOffsets.add(offset);
+            consecutiveFailures++;
+        }
+        System.err.println("Lote en el desplazamiento " + offset + " incompleto, se reintentará: " + cause.getMessage());
+        return true;
+    }
 
-            currentOffset += BATCH_SIZE;
-            hasMore = currentOffset < TOTAL_POKEMON;
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static synchronized long retryDelayMillis() {
+        int shift = Math.min(Math.max(consecutiveFailures - 1, 0), 6);
+        return Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << shift);
+    }
+
+    private static void finishBatch() {
+        boolean completed;
+        synchronized (PokemonDatabase.class) {
+            activeBatches--;
+            boolean done = stopped || (nextOffset >= TOTAL_POKEMON && retryOffsets.isEmpty());
+            if (!done || activeBatches > 0 || !hasMore) return;
+            hasMore = false;
+            completed = !stopped;
+        }
+        if (completed) {
+            exportSnapshot();
         }
     }
 
-    private static Pokemon loadPokemonDetails(String url) {
-        int maxRetries = 3;
-        int retryCount = 0;
-        
-        while (retryCount < maxRetries) {
-            try {
-                requestSemaphore.acquire();
-                try {
-                    HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .GET()
-                        .build();
-
-                    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-                    JsonObject pokemonData = gson.fromJson(response.body(), JsonObject.class);
-
-                    String id = pokemonData.get("id").getAsString();
-                    if (loadedPokemonIds.contains(id)) {
-                        return null;
-                    }
+    private static CompletableFuture<Void> loadBatchAsync(int offset) {
+        String url = POKE_API_BASE_URL + "/pokemon?offset=" + offset + "&limit=" + BATCH_SIZE;
+        return PokeApiClient.getAsync(url, body -> PokeApiJson.resourceUrls(body, "results")).thenCompose(results -> {
+            List<CompletableFuture<Pokemon>> pokemonFutures = new ArrayList<>(results.size());
+            for (String pokemonUrl : results) {
+                String pokemonId = idFromUrl(pokemonUrl);
+                if (!store.contains(pokemonId)) {
+                    pokemonFutures.add(loadPokemonDetailsAsync(pokemonUrl));
+                }
+            }
 
-                    String name = pokemonData.get("name").getAsString();
-                    
-                    // Cargar estadísticas base
-                    JsonArray statsArray = pokemonData.getAsJsonArray("stats");
-                    int maxHealth = statsArray.get(0).getAsJsonObject().get("base_stat").getAsInt() * 2;
-                    int attack = statsArray.get(1).getAsJsonObject().get("base_stat").getAsInt();
-                    int defense = statsArray.get(2).getAsJsonObject().get("base_stat").getAsInt();
-                    int specialAttack = statsArray.get(3).getAsJsonObject().get("base_stat").getAsInt();
-                    int specialDefense = statsArray.get(4).getAsJsonObject().get("base_stat").getAsInt();
-                    int speed = statsArray.get(5).getAsJsonObject().get("base_stat").getAsInt();
-
-                    // Cargar tipos
-                    List<String> types = new ArrayList<>();
-                    JsonArray typesArray = pokemonData.getAsJsonArray("types");
-                    for (JsonElement typeElement : typesArray) {
-                        String type = typeElement.getAsJsonObject()
-                            .getAsJsonObject("type")
-                            .get("name").getAsString();
-                        types.add(type);
+            // Se publica de una vez lo que se haya podido cargar. Si faltan especies por fallos transitorios
+            // el lote falla y se vuelve a encolar; al repetirlo solo se piden las que faltan
+            return CompletableFuture.allOf(pokemonFutures.toArray(new CompletableFuture<?>[0])).handle((ignored, error) -> {
+                List<Pokemon> batch = new ArrayList<>(pokemonFutures.size());
+                for (CompletableFuture<Pokemon> future : pokemonFutures) {
+                    Pokemon pokemon = future.isCompletedExceptionally() ? null : future.join();
+                    if (pokemon != null) {
+                        batch.add(pokemon);
                     }
+                }
+                store.addAll(batch);
+                if (error != null) {
+                    throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                }
+                synchronized (PokemonDatabase.class) {
+                    consecutiveFailures = 0;
+                }
+                return null;
+            });
+        });
+    }
 
-                    // Cargar imagen
-                    String imageUrl = pokemonData.getAsJsonObject("sprites")
-                        .getAsJsonObject("other")
-                        .getAsJsonObject("official-artwork")
-                        .get("front_default").getAsString();
-
-                    // Cargar habilidades
-                    List<Ability> abilities = new ArrayList<>();
-                    JsonArray abilitiesArray = pokemonData.getAsJsonArray("abilities");
-                    for (JsonElement abilityElement : abilitiesArray) {
-                        JsonObject abilityData = abilityElement.getAsJsonObject();
-                        JsonObject abilityInfo = abilityData.getAsJsonObject("ability");
-                        String abilityUrl = abilityInfo.get("url").getAsString();
-                        boolean isHidden = abilityData.get("is_hidden").getAsBoolean();
-                        
-                        try {
-                            requestSemaphore.acquire();
-                            try {
-                                HttpRequest abilityRequest = HttpRequest.newBuilder()
-                                    .uri(URI.create(abilityUrl))
-                                    .GET()
-                                    .build();
-                                
-                                HttpResponse<String> abilityResponse = httpClient.send(abilityRequest, HttpResponse.BodyHandlers.ofString());
-                                JsonObject abilityDetails = gson.fromJson(abilityResponse.body(), JsonObject.class);
-                                
-                                String abilityId = abilityDetails.get("id").getAsString();
-                                String abilityName = abilityDetails.get("name").getAsString();
-                                
-                                // Buscar descripción en español
-                                String description = "Sin descripción disponible";
-                                JsonArray flavorTextEntries = abilityDetails.getAsJsonArray("flavor_text_entries");
-                                for (JsonElement entry : flavorTextEntries) {
-                                    JsonObject flavorEntry = entry.getAsJsonObject();
-                                    JsonObject language = flavorEntry.getAsJsonObject("language");
-                                    if (language.get("name").getAsString().equals("es")) {
-                                        description = flavorEntry.get("flavor_text").getAsString();
-                                        break;
-                                    }
-                                }
-                                
-                                // Si no hay descripción en español, buscar en inglés
-                                if (description.equals("Sin descripción disponible")) {
-                                    for (JsonElement entry : flavorTextEntries) {
-                                        JsonObject flavorEntry = entry.getAsJsonObject();
-                                        JsonObject language = flavorEntry.getAsJsonObject("language");
-                                        if (language.get("name").getAsString().equals("en")) {
-                                            description = flavorEntry.get("flavor_text").getAsString();
-                                            break;
-                                        }
-                                    }
-                                }
-                                
-                                Ability ability = new Ability(abilityId, abilityName, description, "", isHidden);
-                                abilities.add(ability);
-                            } finally {
-                                requestSemaphore.release();
-                            }
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
+    // Último segmento no vacío de la ruta ("…/pokemon/25/" -> "25"), sea cual sea la URL base configurada
+    static String idFromUrl(String url) {
+        int end = url.length();
+        while (end > 0 && url.charAt(end - 1) == '/') end--;
+        return url.substring(url.lastIndexOf('/', end - 1) + 1, end);
+    }
 
-                    // Cargar movimientos (todos los disponibles)
-                    List<Map<String, Object>> moves = new ArrayList<>();
-                    JsonArray movesArray = pokemonData.getAsJsonArray("moves");
-                    Set<String> addedMoveNames = new HashSet<>();
-                    
-                    // Procesar todos los movimientos
-                    ExecutorService moveExecutor = Executors.newFixedThreadPool(5);
-                    
-                    try {
-                        List<CompletableFuture<Map<String, Object>>> moveFutures = new ArrayList<>();
-                        
-                        for (JsonElement moveElement : movesArray) {
-                            JsonObject moveData = moveElement.getAsJsonObject();
-                            JsonObject moveInfo = moveData.getAsJsonObject("move");
-                            String moveUrl = moveInfo.get("url").getAsString();
-                            
-                            CompletableFuture<Map<String, Object>> moveFuture = CompletableFuture.supplyAsync(() -> {
-                                try {
-                                    requestSemaphore.acquire();
-                                    try {
-                                        HttpRequest moveRequest = HttpRequest.newBuilder()
-                                            .uri(URI.create(moveUrl))
-                                            .GET()
-                                            .build();
-                                        
-                                        HttpResponse<String> moveResponse = httpClient.send(moveRequest, HttpResponse.BodyHandlers.ofString());
-                                        JsonObject moveDetails = gson.fromJson(moveResponse.body(), JsonObject.class);
-                                        
-                                        String moveName = moveDetails.get("name").getAsString();
-                                        if (!addedMoveNames.contains(moveName)) {
-                                            Map<String, Object> move = new HashMap<>();
-                                            move.put("name", moveName);
-                                            
-                                            JsonElement powerElement = moveDetails.get("power");
-                                            int power = powerElement.isJsonNull() ? 0 : powerElement.getAsInt();
-                                            move.put("power", power);
-                                            
-                                            String moveType = moveDetails.getAsJsonObject("type").get("name").getAsString();
-                                            move.put("type", moveType);
-                                            
-                                            String category = moveDetails.getAsJsonObject("damage_class").get("name").getAsString();
-                                            move.put("category", category);
-                                            
-                                            addedMoveNames.add(moveName);
-                                            return move;
-                                        }
-                                    } finally {
-                                        requestSemaphore.release();
-                                    }
-                                } catch (Exception e) {
-                                    e.printStackTrace();
-                                }
-                                return null;
-                            }, moveExecutor);
-                            
-                            moveFutures.add(moveFuture);
-                        }
-
-                        // Esperar a que todos los movimientos se carguen
-                        CompletableFuture.allOf(moveFutures.toArray(new CompletableFuture[0])).join();
-                        
-                        // Recopilar los resultados
-                        for (CompletableFuture<Map<String, Object>> future : moveFutures) {
-                            Map<String, Object> move = future.get();
-                            if (move != null) {
-                                moves.add(move);
-                            }
-                        }
-                    } finally {
-                        moveExecutor.shutdown();
-                    }
+    // Solo los fallos definitivos (404 y similares) se omiten; los transitorios se propagan para reintentar
+    private static CompletableFuture<Pokemon> loadPokemonDetailsAsync(String url) {
+        return loadPokemonDetailsAsync(url, false);
+    }
 
-                    // Ordenar movimientos por poder
-                    moves.sort((a, b) -> Integer.compare(
-                        (int) b.get("power"),
-                        (int) a.get("power")
-                    ));
-
-                    // Si no hay movimientos, añadir movimientos por defecto
-                    if (moves.isEmpty()) {
-                        moves.add(createDefaultMove("Ataque Rápido", 40, "normal"));
-                        moves.add(createDefaultMove("Placaje", 35, "normal"));
-                        moves.add(createDefaultMove("Arañazo", 30, "normal"));
-                        moves.add(createDefaultMove("Destructor", 45, "normal"));
-                    }
+    private static CompletableFuture<Pokemon> loadPokemonDetailsAsync(String url, boolean priority) {
+        return skipIfPermanent(PokeApiClient.getAsync(url, PokeApiJson::species, priority)
+            .thenCompose(species -> buildPokemon(species, priority)), url);
+    }
 
-                    Pokemon pokemon = new Pokemon(
-                        id,
-                        name,
-                        maxHealth,
-                        attack,
-                        defense,
-                        types,
-                        speed,
-                        specialAttack,
-                        specialDefense,
-                        imageUrl,
-                        moves
-                    );
-
-                    // Configurar habilidades
-                    pokemon.setAbilities(abilities);
-
-                    List<Integer> defaultIndices = new ArrayList<>();
-                    for (int i = 0; i < Math.min(4, moves.size()); i++) {
-                        defaultIndices.add(i);
-                    }
-                    pokemon.setSelectedMoveIndices(defaultIndices);
+    private static <T> CompletableFuture<T> skipIfPermanent(CompletableFuture<T> future, String url) {
+        return future.exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (PokeApiException.isPermanent(cause)) {
+                System.err.println("Se omite " + url + ": " + cause.getMessage());
+                return null;
+            }
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+        });
+    }
+
+    private static CompletableFuture<Pokemon> buildPokemon(PokeApiJson.Species species, boolean priority) {
+        String id = species.id;
+        if (store.contains(id)) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-                    return pokemon;
-                } finally {
-                    requestSemaphore.release();
+        String name = species.name;
+
+        // Estadísticas base
+        int maxHealth = species.stats.get(0) * 2;
+        int attack = species.stats.get(1);
+        int defense = species.stats.get(2);
+        int specialAttack = species.stats.get(3);
+        int specialDefense = species.stats.get(4);
+        int speed = species.stats.get(5);
+
+        List<String> types = species.types;
+        String imageUrl = species.imageUrl;
+
+        // Cargar habilidades: cada una se descarga solo la primera vez y el resto de especies reciben la
+        // instancia compartida. Una habilidad que ya no existe se omite; un fallo transitorio hace fallar
+        // la especie para que se reintente entera en lugar de quedarse incompleta
+        List<CompletableFuture<Ability>> abilityFutures = new ArrayList<>(species.abilityUrls.size());
+        for (int i = 0; i < species.abilityUrls.size(); i++) {
+            String abilityUrl = species.abilityUrls.get(i);
+            boolean isHidden = species.abilityHidden.get(i);
+            abilityFutures.add(skipIfPermanent(AbilityDatabase.fetchAsync(abilityUrl, isHidden, priority), abilityUrl));
+        }
+
+        // Cargar movimientos (todos los disponibles); cada movimiento se descarga una vez para todas las
+        // especies que lo aprenden
+        List<CompletableFuture<Map<String, Object>>> moveFutures = new ArrayList<>(species.moveUrls.size());
+        for (String moveUrl : species.moveUrls) {
+            moveFutures.add(skipIfPermanent(MoveDatabase.fetchAsync(moveUrl, priority), moveUrl));
+        }
+
+        List<CompletableFuture<?>> pending = new ArrayList<>(abilityFutures);
+        pending.addAll(moveFutures);
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<Ability> abilities = new ArrayList<>(abilityFutures.size());
+            for (CompletableFuture<Ability> future : abilityFutures) {
+                Ability ability = future.join();
+                if (ability != null) {
+                    abilities.add(ability);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-                retryCount++;
             }
-        }
-        return null;
+
+            // Recopilar los resultados
+            List<Map<String, Object>> moves = new ArrayList<>(moveFutures.size());
+            Set<Map<String, Object>> addedMoves = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (CompletableFuture<Map<String, Object>> future : moveFutures) {
+                Map<String, Object> move = future.join();
+                if (move != null && addedMoves.add(move)) {
+                    moves.add(move);
+                }
+            }
+
+            // Ordenar movimientos por poder
+            moves.sort((a, b) -> Integer.compare(
+                (int) b.get("power"),
+                (int) a.get("power")
+            ));
+
+            // Si no hay movimientos, añadir movimientos por defecto
+            if (moves.isEmpty()) {
+                moves.add(createDefaultMove("Ataque Rápido", 40, "normal"));
+                moves.add(createDefaultMove("Placaje", 35, "normal"));
+                moves.add(createDefaultMove("Arañazo", 30, "normal"));
+                moves.add(createDefaultMove("Destructor", 45, "normal"));
+            }
+
+            Pokemon pokemon = new Pokemon(
+                id,
+                name,
+                maxHealth,
+                attack,
+                defense,
+                types,
+                speed,
+                specialAttack,
+                specialDefense,
+                imageUrl,
+                moves
+            );
+
+            // Configurar habilidades
+            pokemon.setAbilities(abilities);
+
+            List<Integer> defaultIndices = new ArrayList<>();
+            for (int i = 0; i < Math.min(4, moves.size()); i++) {
+                defaultIndices.add(i);
+            }
+            pokemon.setSelectedMoveIndices(defaultIndices);
+
+            return pokemon;
+        });
     }
 
     private static Map<String, Object> createDefaultMove(String name, int power, String type) {
@@ -338,40 +305,185 @@ public class PokemonDatabase {
         move.put("name", name);
         move.put("power", power);
         move.put("type", type);
-        return move;
+        return MoveDatabase.intern(move);
+    }
+
+    // Con la carga completa se compila la dex para que el próximo arranque no tenga que descargar ni parsear nada.
+    // Los objetos se cargan por separado: si su lista aún no está completa no se guardan, porque el próximo
+    // arranque se fiaría de ella y no pediría los que faltan; así los vuelve a descargar
+    private static void exportSnapshot() {
+        try {
+            boolean itemsComplete = ItemDatabase.isComplete();
+            if (!itemsComplete) System.out.println("La lista de objetos no está completa; la dex se guarda sin objetos");
+            List<HeldItem> items = itemsComplete ? ItemDatabase.getAllItems() : List.of();
+            DexSnapshot.export(DexSnapshot.defaultPath(), store.getAll(), items);
+        } catch (Exception e) {
+            System.err.println("No se pudo exportar la dex compilada: " + e.getMessage());
+        }
     }
 
+    // Materializa de una vez las especies de la dex compilada que aún no se habían pedido
+    private static synchronized void materializeSnapshot() {
+        DexSnapshot snapshot = dexSnapshot;
+        if (snapshot == null || store.size() >= snapshot.size()) return;
+        List<Pokemon> pending = new ArrayList<>(snapshot.size() - store.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            Pokemon pokemon = snapshot.materialize(i);
+            if (!store.contains(pokemon.getId())) {
+                pending.add(pokemon);
+            }
+        }
+        store.addAll(pending);
+    }
+
+    // Lista inmutable ordenada por id, sin copia
     public static List<Pokemon> getAllPokemon() {
-        synchronized (pokemonSet) {
-            return new ArrayList<>(pokemonSet);
+        DexSnapshot snapshot = dexSnapshot;
+        if (snapshot != null && store.size() < snapshot.size()) {
+            materializeSnapshot();
         }
+        return store.getAll();
     }
 
     public static Pokemon getPokemon(String id) {
-        synchronized (pokemonSet) {
-            //System.out.println("Buscando Pokémon con ID: " + id);
-            //System.out.println("Total de Pokémon cargados: " + pokemonSet.size());
-            Pokemon pokemon = pokemonSet.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst()
-                .orElse(null);
-            if (pokemon != null) {
-                //System.out.println("Pokémon encontrado: " + pokemon.getName());
-            } else {
-                System.out.println("Pokémon no encontrado con ID: " + id);
+        return getPokemon(id, DEMAND_WAIT_MILLIS);
+    }
+
+    // Si la especie aún no está cargada se pide con prioridad y se espera como mucho timeoutMillis.
+    // Si se agota la espera devuelve null, pero la descarga sigue y la especie queda en el almacén
+    public static Pokemon getPokemon(String id, long timeoutMillis) {
+        Pokemon pokemon = getLoadedPokemon(id);
+        if (pokemon == null) {
+            pokemon = await(getPokemonAsync(id), timeoutMillis);
+        }
+        if (pokemon == null) {
+            System.out.println("Pokémon no encontrado con ID: " + id);
+        }
+        return pokemon;
+    }
+
+    // Especie ya cargada (o presente en la dex compilada) sin descargar nada
+    private static Pokemon getLoadedPokemon(String id) {
+        Pokemon pokemon = store.get(id);
+        DexSnapshot snapshot = dexSnapshot;
+        if (pokemon == null && snapshot != null) {
+            int index = snapshot.indexOf(id);
+            if (index >= 0) {
+                store.add(snapshot.materialize(index));
+                // Si otro hilo la materializó a la vez, todos usan la instancia publicada
+                pokemon = store.get(id);
             }
-            return pokemon;
+        }
+        return pokemon;
+    }
+
+    // Completa con null si la especie no existe o no se pudo descargar
+    public static CompletableFuture<Pokemon> getPokemonAsync(String id) {
+        Pokemon loaded = getLoadedPokemon(id);
+        if (loaded != null) return CompletableFuture.completedFuture(loaded);
+        if (id == null) return CompletableFuture.completedFuture(null);
+        String key = id.toLowerCase();
+        if (!key.matches("[a-z0-9-]+") || missing.contains(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Pokemon> future = demands.get(key);
+        if (future != null) return future;
+        CompletableFuture<Pokemon> created = new CompletableFuture<>();
+        future = demands.putIfAbsent(key, created);
+        if (future != null) return future;
+
+        // Misma URL que usa el recorrido, así que si esa especie ya estaba en cola se adelanta en vez de pedirse dos veces
+        String url = POKE_API_BASE_URL + "/pokemon/" + key + "/";
+        PokeApiClient.getAsync(url, PokeApiJson::species, true)
+            .thenCompose(species -> buildPokemon(species, true).thenApply(pokemon -> {
+                if (pokemon != null) store.add(pokemon);
+                return store.get(species.id);
+            }))
+            .whenComplete((pokemon, error) -> {
+                demands.remove(key, created);
+                if (error != null) {
+                    if (PokeApiException.isPermanent(error)) {
+                        if (missing.size() >= MAX_MISSING) evictMissing();
+                        missing.add(key);
+                    } else {
+                        System.err.println("No se pudo cargar el Pokémon " + key + ": " + error.getMessage());
+                    }
+                    created.complete(null);
+                } else {
+                    created.complete(pokemon);
+                }
+            });
+        return created;
+    }
+
+    // Hace sitio quitando una sola entrada; vaciarlo entero volvería a lanzar a PokeAPI todos los ids ya descartados
+    private static void evictMissing() {
+        Iterator<String> it = missing.iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // true mientras siga en curso la descarga prioritaria de esa especie
+    public static boolean isPending(String id) {
+        return id != null && demands.containsKey(id.toLowerCase());
+    }
+
+    private static Pokemon await(CompletableFuture<Pokemon> future, long timeoutMillis) {
+        try {
+            return timeoutMillis > 0 ? future.get(timeoutMillis, TimeUnit.MILLISECONDS) : future.getNow(null);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
         }
     }
 
     public static List<Pokemon> searchPokemon(String query) {
-        final String searchQuery = query.toLowerCase();
-        synchronized (pokemonSet) {
-            return pokemonSet.stream()
-                .filter(p -> p.getName().toLowerCase().contains(searchQuery) ||
-                           p.getTypes().stream().anyMatch(t -> t.toLowerCase().contains(searchQuery)))
-                .toList();
+        return searchPokemon(query, false, null, null, 0);
+    }
+
+    // Búsqueda por nombre (subcadena o prefijo) y tipo sobre el índice, con filtros de tipo y habilidad
+    // y los resultados ordenados por relevancia. limit <= 0 es sin límite
+    public static List<Pokemon> searchPokemon(String query, boolean prefixOnly, String type, String ability, int limit) {
+        DexSnapshot snapshot = dexSnapshot;
+        if (snapshot != null && store.size() < snapshot.size()) {
+            materializeSnapshot();
+        }
+        final String searchQuery = query != null ? query.trim().toLowerCase() : "";
+        PokemonSearchIndex index = store.getIndex();
+        List<Pokemon> results = index.search(searchQuery, prefixOnly, type, ability, limit);
+
+        // Un nombre o número exacto que no encuentra nada y que el recorrido aún no ha alcanzado se pide con
+        // prioridad; si el índice ya devuelve algo ("char" -> Charmander...) no se espera a PokeAPI
+        if (results.isEmpty() && hasMore && searchQuery.matches("[a-z0-9-]+") && !index.containsExact(searchQuery)
+                && TypeEffectiveness.ordinal(searchQuery) == TypeEffectiveness.UNKNOWN) {
+            Pokemon demanded = await(getPokemonAsync(searchQuery), DEMAND_WAIT_MILLIS);
+            // Ya está en el índice: se repite la búsqueda para que respete filtros, orden y límite
+            if (demanded != null) {
+                return index.search(searchQuery, prefixOnly, type, ability, limit);
+            }
         }
+        return results;
+    }
+
+    public static int getLoadedCount() {
+        return store.size();
+    }
+
+    // Versión del conjunto cargado; cambia cada vez que se publica un lote nuevo o se configura una especie
+    public static long getDatasetVersion() {
+        return store.getVersion() + modifications.get();
+    }
+
+    // Lo llama quien cambia una especie ya publicada, para que las cachés derivadas la vuelvan a leer
+    public static void markModified() {
+        modifications.incrementAndGet();
     }
 
     public static boolean hasMorePokemon() {
@@ -0,0 +1,296 @@
+package com.rpgen.pokemon.data;
+
+import com.rpgen.pokemon.entity.Ability;
+import com.rpgen.pokemon.entity.Pokemon;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de búsqueda de especies, se actualiza con cada lote que publica PokemonStore. Cada especie recibe un
+// número de documento por orden de llegada y se indexa en:
+//  - un trie de prefijos del nombre (también de cada palabra tras un guion, "tapu-koko" -> "koko")
+//  - postings de n-gramas de 1 a 3 letras del nombre: una consulta corta es una sola búsqueda y una larga
+//    es la intersección de sus trigramas, que luego se confirma con contains
+//  - BitSets por tipo y por habilidad (id y nombre) para los filtros
+// Las consultas solo toman el cerrojo de lectura y recorren arrays de enteros, sin copiar la dex
+public final class PokemonSearchIndex {
+    // Orden de los resultados: nombre exacto, prefijo del nombre, prefijo de una palabra, subcadena, tipo
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_PREFIX = 1;
+    private static final int RANK_WORD_PREFIX = 2;
+    private static final int RANK_SUBSTRING = 3;
+    private static final int RANK_TYPE = 4;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final int MAX_GRAM = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Pokemon[] docs = new Pokemon[64];
+    private String[] names = new String[64];
+    private int[] sortKeys = new int[64];
+    private int size;
+    private final Map<String, Integer> docsById = new HashMap<>();
+    private final Node nameTrie = new Node();
+    private final Map<String, Postings> grams = new HashMap<>();
+    private final Map<String, BitSet> byType = new HashMap<>();
+    private final Map<String, BitSet> byAbility = new HashMap<>();
+
+    public void addAll(Collection<Pokemon> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Pokemon pokemon : batch) {
+                if (pokemon != null && pokemon.getId() != null && !docsById.containsKey(pokemon.getId())) {
+                    index(pokemon);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(docs, 0, size, null);
+            size = 0;
+            docsById.clear();
+            nameTrie.children = null;
+            nameTrie.docs = new Postings();
+            grams.clear();
+            byType.clear();
+            byAbility.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // true si hay una especie con ese nombre o id exacto
+    public boolean containsExact(String query) {
+        String q = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (docsById.containsKey(q)) return true;
+            Node node = nameTrie.find(q);
+            if (node == null) return false;
+            for (int i = 0; i < node.docs.size; i++) {
+                if (names[node.docs.ids[i]].equals(q)) return true;
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Busca por nombre (subcadena o, con prefixOnly, solo prefijo) o por tipo, con filtros opcionales de tipo
+    // y habilidad. Una consulta vacía devuelve todas las especies que pasen los filtros. limit <= 0 es sin límite
+    public List<Pokemon> search(String query, boolean prefixOnly, String type, String ability, int limit) {
+        String q = normalize(query);
+        String typeFilter = type != null ? normalize(type) : null;
+        String abilityFilter = ability != null ? normalize(ability) : null;
+
+        lock.readLock().lock();
+        try {
+            BitSet filter = filter(typeFilter, abilityFilter);
+            if (filter != null && filter.isEmpty()) return List.of();
+
+            // Cada candidato se codifica en un long (rango, id, documento) y se ordenan sin crear objetos
+            long[] hits;
+            int count = 0;
+            if (q.isEmpty()) {
+                hits = new long[filter != null ? filter.cardinality() : size];
+                for (int doc = 0; doc < size; doc++) {
+                    if (filter == null || filter.get(doc)) hits[count++] = encode(RANK_SUBSTRING, doc);
+                }
+            } else if (prefixOnly) {
+                Node node = nameTrie.find(q);
+                int matches = node != null ? node.docs.size : 0;
+                hits = new long[matches + 1];
+                for (int i = 0; i < matches; i++) {
+                    int doc = node.docs.ids[i];
+                    if (filter == null || filter.get(doc)) hits[count++] = encode(rank(doc, q), doc);
+                }
+            } else {
+                BitSet typeMatches = typesContaining(q);
+                Postings candidates = candidates(q);
+                int max = (candidates != null ? candidates.size : 0) + (typeMatches != null ? typeMatches.cardinality() : 0);
+                hits = new long[max + 1];
+                if (candidates != null) {
+                    for (int i = 0; i < candidates.size; i++) {
+                        int doc = candidates.ids[i];
+                        if (filter != null && !filter.get(doc)) continue;
+                        int rank = rank(doc, q);
+                        if (rank != NO_MATCH) hits[count++] = encode(rank, doc);
+                    }
+                }
+                if (typeMatches != null) {
+                    for (int doc = typeMatches.nextSetBit(0); doc >= 0; doc = typeMatches.nextSetBit(doc + 1)) {
+                        if (filter != null && !filter.get(doc)) continue;
+                        // Las que ya salieron por nombre no se repiten
+                        if (rank(doc, q) == NO_MATCH) hits[count++] = encode(RANK_TYPE, doc);
+                    }
+                }
+            }
+            // El número de la dex cuenta como coincidencia exacta (el hueco extra de hits es para ella)
+            Integer byId = q.isEmpty() ? null : docsById.get(q);
+            if (byId != null && (filter == null || filter.get(byId)) && rank(byId, q) == NO_MATCH) {
+                hits[count++] = encode(RANK_EXACT, byId);
+            }
+
+            Arrays.sort(hits, 0, count);
+            int returned = limit > 0 ? Math.min(limit, count) : count;
+            Pokemon[] results = new Pokemon[returned];
+            for (int i = 0; i < returned; i++) {
+                results[i] = docs[docIndex(hits[i])];
+            }
+            return Collections.unmodifiableList(Arrays.asList(results));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Pokemon pokemon) {
+        int doc = size++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, doc * 2);
+            names = Arrays.copyOf(names, doc * 2);
+            sortKeys = Arrays.copyOf(sortKeys, doc * 2);
+        }
+        String name = normalize(pokemon.getName());
+        docs[doc] = pokemon;
+        names[doc] = name;
+        int numericId = PokemonStore.parseId(pokemon.getId());
+        sortKeys[doc] = numericId >= 0 ? numericId : Integer.MAX_VALUE;
+        docsById.put(pokemon.getId(), doc);
+
+        nameTrie.insert(name, 0, doc);
+        for (int start = name.indexOf('-'); start >= 0; start = name.indexOf('-', start + 1)) {
+            if (start + 1 < name.length()) nameTrie.insert(name, start + 1, doc);
+        }
+
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= name.length(); i++) {
+                grams.computeIfAbsent(name.substring(i, i + length), key -> new Postings()).addOnce(doc);
+            }
+        }
+
+        for (String type : pokemon.getTypes()) {
+            byType.computeIfAbsent(normalize(type), key -> new BitSet()).set(doc);
+        }
+        if (pokemon.getAbilities() != null) {
+            for (Ability ability : pokemon.getAbilities()) {
+                if (ability.getId() != null) byAbility.computeIfAbsent(normalize(ability.getId()), key -> new BitSet()).set(doc);
+                if (ability.getName() != null) byAbility.computeIfAbsent(normalize(ability.getName()), key -> new BitSet()).set(doc);
+            }
+        }
+    }
+
+    // Especies que pueden contener la consulta. Hasta MAX_GRAM letras la lista es exacta; con más, se usa la
+    // más corta de las de sus trigramas y rank descarta después las que no la contienen
+    private Postings candidates(String q) {
+        if (q.length() <= MAX_GRAM) return grams.get(q);
+        Postings shortest = null;
+        for (int i = 0; i + MAX_GRAM <= q.length(); i++) {
+            Postings postings = grams.get(q.substring(i, i + MAX_GRAM));
+            if (postings == null) return null;
+            if (shortest == null || postings.size < shortest.size) shortest = postings;
+        }
+        return shortest;
+    }
+
+    private BitSet typesContaining(String q) {
+        BitSet matches = null;
+        for (Map.Entry<String, BitSet> entry : byType.entrySet()) {
+            if (entry.getKey().contains(q)) {
+                if (matches == null) matches = new BitSet(size);
+                matches.or(entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    private BitSet filter(String type, String ability) {
+        BitSet filter = null;
+        if (type != null && !type.isEmpty()) {
+            BitSet postings = byType.get(type);
+            if (postings == null) return new BitSet();
+            filter = (BitSet) postings.clone();
+        }
+        if (ability != null && !ability.isEmpty()) {
+            BitSet postings = byAbility.get(ability);
+            if (postings == null) return new BitSet();
+            if (filter == null) {
+                filter = postings;
+            } else {
+                filter.and(postings);
+            }
+        }
+        return filter;
+    }
+
+    private int rank(int doc, String q) {
+        String name = names[doc];
+        if (name.equals(q)) return RANK_EXACT;
+        if (name.startsWith(q)) return RANK_PREFIX;
+        int at = name.indexOf(q);
+        if (at < 0) return NO_MATCH;
+        for (; at >= 0; at = name.indexOf(q, at + 1)) {
+            if (name.charAt(at - 1) == '-') return RANK_WORD_PREFIX;
+        }
+        return RANK_SUBSTRING;
+    }
+
+    private long encode(int rank, int doc) {
+        // Rango en los bits altos, luego el id numérico y el número de documento en los 21 bits bajos
+        return ((long) rank << 58) | ((long) sortKeys[doc] << 21 & 0x03FF_FFFF_FFE0_0000L) | doc;
+    }
+
+    private static int docIndex(long hit) {
+        return (int) (hit & 0x1F_FFFF);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lista creciente de números de documento; se añaden en orden, así que queda ordenada
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void addOnce(int doc) {
+            if (size > 0 && ids[size - 1] == doc) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = doc;
+        }
+    }
+
+    private static final class Node {
+        Map<Character, Node> children;
+        Postings docs = new Postings();
+
+        void insert(String word, int from, int doc) {
+            Node node = this;
+            for (int i = from; i < word.length(); i++) {
+                if (node.children == null) node.children = new HashMap<>(4);
+                node = node.children.computeIfAbsent(word.charAt(i), key -> new Node());
+                node.docs.addOnce(doc);
+            }
+        }
+
+        Node find(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children != null ? node.children.get(prefix.charAt(i)) : null;
+            }
+            return node;
+        }
+    }
+}
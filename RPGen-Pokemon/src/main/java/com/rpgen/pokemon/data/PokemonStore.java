@@ -0,0 +1,152 @@
+package com.rpgen.pokemon.data;
+
+import com.rpgen.pokemon.entity.Pokemon;
+
+import java.util.*;
+
+// Almacén de especies indexado por id numérico. Las lecturas no toman ningún cerrojo: leen una instantánea
+// inmutable publicada en un campo volatile. Las escrituras (el cargador en segundo plano) construyen una
+// instantánea nueva por lote y la publican de golpe (copy-on-write). Cada lote publicado se añade también al
+// índice de búsqueda
+public final class PokemonStore {
+    // Ids de PokeAPI: 1..~1025 para especies y 10001..~10300 para formas; por encima se usa un mapa
+    private static final int MAX_DENSE_ID = 1 << 16;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final PokemonSearchIndex index = new PokemonSearchIndex();
+
+    public Pokemon get(String id) {
+        Snapshot current = snapshot;
+        int numericId = parseId(id);
+        if (numericId >= 0 && numericId < current.byId.length) {
+            return current.byId[numericId];
+        }
+        return numericId >= MAX_DENSE_ID || numericId < 0 ? current.sparse.get(id) : null;
+    }
+
+    public Pokemon get(int id) {
+        Snapshot current = snapshot;
+        if (id >= 0 && id < current.byId.length) {
+            return current.byId[id];
+        }
+        return id >= MAX_DENSE_ID ? current.sparse.get(String.valueOf(id)) : null;
+    }
+
+    public boolean contains(String id) {
+        return get(id) != null;
+    }
+
+    // Vista inmutable ordenada por id; no se copia en cada llamada
+    public List<Pokemon> getAll() {
+        return snapshot.sortedView;
+    }
+
+    public int size() {
+        return snapshot.sorted.length;
+    }
+
+    public PokemonSearchIndex getIndex() {
+        return index;
+    }
+
+    // Se incrementa con cada lote publicado; sirve como clave para cachés derivadas
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    public void add(Pokemon pokemon) {
+        addAll(List.of(pokemon));
+    }
+
+    public synchronized void addAll(Collection<Pokemon> batch) {
+        if (batch == null || batch.isEmpty()) return;
+        Snapshot current = snapshot;
+
+        int maxId = current.byId.length - 1;
+        for (Pokemon pokemon : batch) {
+            if (pokemon == null || pokemon.getId() == null) continue;
+            int numericId = parseId(pokemon.getId());
+            if (numericId >= 0 && numericId < MAX_DENSE_ID) maxId = Math.max(maxId, numericId);
+        }
+        Pokemon[] byId = Arrays.copyOf(current.byId, maxId + 1);
+        Map<String, Pokemon> sparse = current.sparse;
+        List<Pokemon> added = new ArrayList<>(batch.size());
+        for (Pokemon pokemon : batch) {
+            if (pokemon == null || pokemon.getId() == null) continue;
+            int numericId = parseId(pokemon.getId());
+            if (numericId >= 0 && numericId < MAX_DENSE_ID) {
+                if (byId[numericId] != null) continue;
+                byId[numericId] = pokemon;
+            } else {
+                if (sparse.containsKey(pokemon.getId())) continue;
+                if (sparse == current.sparse) sparse = new HashMap<>(current.sparse);
+                sparse.put(pokemon.getId(), pokemon);
+            }
+            added.add(pokemon);
+        }
+        if (added.isEmpty()) return;
+
+        // Mezcla de los ya ordenados con el lote nuevo, que es pequeño
+        added.sort(PokemonStore::compareIds);
+        Pokemon[] sorted = new Pokemon[current.sorted.length + added.size()];
+        int i = 0, j = 0, k = 0;
+        while (i < current.sorted.length && j < added.size()) {
+            sorted[k++] = compareIds(current.sorted[i], added.get(j)) <= 0 ? current.sorted[i++] : added.get(j++);
+        }
+        while (i < current.sorted.length) sorted[k++] = current.sorted[i++];
+        while (j < added.size()) sorted[k++] = added.get(j++);
+
+        snapshot = new Snapshot(byId, sparse == current.sparse ? sparse : Collections.unmodifiableMap(sparse),
+            sorted, current.version + 1);
+        index.addAll(added);
+    }
+
+    public synchronized void clear() {
+        snapshot = new Snapshot(new Pokemon[0], Map.of(), new Pokemon[0], snapshot.version + 1);
+        index.clear();
+    }
+
+    private static int compareIds(Pokemon a, Pokemon b) {
+        return compareIds(a.getId(), b.getId());
+    }
+
+    // Orden del almacén: primero los ids numéricos de menor a mayor y después el resto alfabéticamente
+    public static int compareIds(String a, String b) {
+        int first = parseId(a);
+        int second = parseId(b);
+        if (first >= 0 && second >= 0) return Integer.compare(first, second);
+        if (first >= 0) return -1;
+        if (second >= 0) return 1;
+        return a.compareTo(b);
+    }
+
+    // Id numérico sin excepciones; -1 si no es un entero no negativo
+    static int parseId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 9) return -1;
+        int value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Pokemon[0], Map.of(), new Pokemon[0], 0);
+
+        final Pokemon[] byId;
+        final Map<String, Pokemon> sparse;
+        final Pokemon[] sorted;
+        final List<Pokemon> sortedView;
+        final long version;
+
+        Snapshot(Pokemon[] byId, Map<String, Pokemon> sparse, Pokemon[] sorted, long version) {
+            this.byId = byId;
+            this.sparse = sparse;
+            this.sorted = sorted;
+            this.sortedView = Collections.unmodifiableList(Arrays.asList(sorted));
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.rpgen.pokemon.data;
+
+import com.rpgen.pokemon.entity.Ability;
+import com.rpgen.pokemon.entity.HeldItem;
+import com.rpgen.pokemon.entity.Nature;
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.Stats;
+
+import java.util.*;
+
+// Construye Pokémon de combate a partir de una referencia compacta (id de especie + configuración)
+// en lugar de recibir el objeto completo serializado. Cada Pokémon es una copia independiente de la
+// especie de PokemonDatabase, así que configurarlo no modifica la base de datos
+public final class TeamBuilder {
+    public static final int MAX_TEAM_SIZE = 6;
+    public static final int MAX_MOVES = 4;
+
+    private TeamBuilder() {
+    }
+
+    public static List<Pokemon> buildTeam(List<PokemonBuild> builds) {
+        if (builds == null || builds.isEmpty()) {
+            throw new IllegalArgumentException("El equipo está vacío");
+        }
+        if (builds.size() > MAX_TEAM_SIZE) {
+            throw new IllegalArgumentException("Un equipo no puede tener más de " + MAX_TEAM_SIZE + " Pokémon");
+        }
+        List<Pokemon> team = new ArrayList<>(builds.size());
+        for (PokemonBuild build : builds) {
+            team.add(build(build));
+        }
+        return team;
+    }
+
+    public static Pokemon build(PokemonBuild build) {
+        if (build == null || build.id == null) {
+            throw new IllegalArgumentException("Falta el id del Pokémon");
+        }
+        Pokemon species = PokemonDatabase.getPokemon(build.id);
+        if (species == null) {
+            throw new IllegalArgumentException("Pokémon no encontrado con ID: " + build.id);
+        }
+        Pokemon pokemon = species.copy();
+
+        // Sin moves se quedan los cuatro por defecto de la especie, que la copia ya trae
+        if (build.moves != null && !build.moves.isEmpty()) {
+            if (build.moves.size() > MAX_MOVES) {
+                throw new IllegalArgumentException("Un Pokémon no puede tener más de " + MAX_MOVES + " movimientos");
+            }
+            int available = pokemon.getMoves() != null ? pokemon.getMoves().size() : 0;
+            Set<Integer> seen = new HashSet<>(build.moves.size());
+            for (Integer index : build.moves) {
+                if (index == null || index < 0 || index >= available) {
+                    throw new IllegalArgumentException("Índice de movimiento no válido para " + build.id + ": " + index);
+                }
+                if (!seen.add(index)) {
+                    throw new IllegalArgumentException("Movimiento repetido para " + build.id + ": " + index);
+                }
+            }
+            pokemon.setSelectedMoveIndices(new ArrayList<>(build.moves));
+        }
+
+        if (build.ability != null && !build.ability.isEmpty()) {
+            Ability ability = pokemon.getAbilities().stream()
+                .filter(candidate -> candidate.getId().equals(build.ability))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Habilidad no válida para " + build.id + ": " + build.ability));
+            pokemon.setSelectedAbility(ability);
+        }
+
+        if (build.item != null && !build.item.isEmpty()) {
+            HeldItem item = ItemDatabase.getItem(build.item);
+            if (item == null) {
+                throw new IllegalArgumentException("Objeto no encontrado: " + build.item);
+            }
+            pokemon.setHeldItem(item);
+        } else {
+            pokemon.setHeldItem(null);
+        }
+
+        if (build.nature != null && !build.nature.isEmpty()) {
+            Nature nature = NatureDatabase.getNature(build.nature);
+            if (nature == null) {
+                throw new IllegalArgumentException("Naturaleza no encontrada: " + build.nature);
+            }
+            pokemon.setNature(nature);
+        }
+
+        if (build.ivs != null || build.evs != null) {
+            Stats current = pokemon.getStats();
+            Map<String, Integer> ivs = build.ivs != null ? build.ivs : Map.of();
+            Map<String, Integer> evs = build.evs != null ? build.evs : Map.of();
+            Stats stats = new Stats(
+                current.getHp(), current.getAttack(), current.getDefense(),
+                current.getSpecialAttack(), current.getSpecialDefense(), current.getSpeed(),
+                ivs.getOrDefault("hp", current.getHpIV()), ivs.getOrDefault("attack", current.getAttackIV()),
+                ivs.getOrDefault("defense", current.getDefenseIV()), ivs.getOrDefault("specialAttack", current.getSpecialAttackIV()),
+                ivs.getOrDefault("specialDefense", current.getSpecialDefenseIV()), ivs.getOrDefault("speed", current.getSpeedIV()),
+                evs.getOrDefault("hp", current.getHpEV()), evs.getOrDefault("attack", current.getAttackEV()),
+                evs.getOrDefault("defense", current.getDefenseEV()), evs.getOrDefault("specialAttack", current.getSpecialAttackEV()),
+                evs.getOrDefault("specialDefense", current.getSpecialDefenseEV()), evs.getOrDefault("speed", current.getSpeedEV())
+            );
+            if (!stats.isValidEVs()) {
+                throw new IllegalArgumentException("Los EVs totales no pueden exceder 510");
+            }
+            pokemon.setStats(stats);
+        }
+
+        if (build.level != null) {
+            pokemon.setLevel(build.level);
+        }
+
+        pokemon.resetStatStages();
+        pokemon.setStatus(null);
+        pokemon.setHealth(pokemon.getMaxHealth());
+        return pokemon;
+    }
+
+    // Referencia compacta a un Pokémon: especie, índices de movimientos y configuración opcional
+    public static class PokemonBuild {
+        private String id;
+        private List<Integer> moves;
+        private String ability;
+        private String item;
+        private String nature;
+        private Map<String, Integer> ivs;
+        private Map<String, Integer> evs;
+        private Integer level;
+
+        public PokemonBuild() {
+        }
+
+        public PokemonBuild(String id, List<Integer> moves) {
+            this.id = id;
+            this.moves = moves;
+        }
+
+        public String getId() { return id; }
+        public List<Integer> getMoves() { return moves; }
+        public String getAbility() { return ability; }
+        public String getItem() { return item; }
+        public String getNature() { return nature; }
+        public Map<String, Integer> getIvs() { return ivs; }
+        public Map<String, Integer> getEvs() { return evs; }
+        public Integer getLevel() { return level; }
+
+        public PokemonBuild setAbility(String ability) { this.ability = ability; return this; }
+        public PokemonBuild setItem(String item) { this.item = item; return this; }
+        public PokemonBuild setNature(String nature) { this.nature = nature; return this; }
+        public PokemonBuild setIvs(Map<String, Integer> ivs) { this.ivs = ivs; return this; }
+        public PokemonBuild setEvs(Map<String, Integer> evs) { this.evs = evs; return this; }
+        public PokemonBuild setLevel(Integer level) { this.level = level; return this; }
+    }
+}
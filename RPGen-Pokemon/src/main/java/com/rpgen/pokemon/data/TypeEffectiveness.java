@@ -2,92 +2,145 @@ package com.rpgen.pokemon.data;
 
 import java.util.*;
 
-public class TypeEffectiveness {
-    private static final Map<String, Map<String, Double>> TYPE_CHART = new HashMap<>();
-    
+public final class TypeEffectiveness {
+    public static final int TYPE_COUNT = 18;
+    // Ordinal reservado para el hueco de un defensor de tipo único
+    public static final int NONE = TYPE_COUNT;
+    public static final int UNKNOWN = -1;
+
+    private static final String[] TYPE_NAMES = {
+        "normal", "fire", "water", "electric", "grass", "ice", "fighting", "poison", "ground",
+        "flying", "psychic", "bug", "rock", "ghost", "dragon", "dark", "steel", "fairy"
+    };
+
+    // Codificación de un byte por relación: 0 = inmune, 1 = x0.5, 2 = x1, 3 = x2
+    private static final byte IMMUNE = 0;
+    private static final byte RESISTED = 1;
+    private static final byte NEUTRAL = 2;
+    private static final byte SUPER = 3;
+    private static final float[] MULTIPLIERS = {0.0f, 0.5f, 1.0f, 2.0f};
+
+    private static final Map<String, Integer> ORDINALS;
+    private static final byte[] CHART = new byte[TYPE_COUNT * TYPE_COUNT];
+    // Tabla [ataque][tipo1][tipo2] con tipo2 = NONE para defensores de un solo tipo
+    private static final int SLOTS = TYPE_COUNT + 1;
+    private static final float[] DUAL_CHART = new float[TYPE_COUNT * SLOTS * SLOTS];
+
     static {
-        // Inicializar la tabla de tipos de manera compacta
-        // Formato: "tipo": {"tipo_efectivo": multiplicador, ...}
-        TYPE_CHART.put("normal", Map.of(
-            "rock", 0.5, "ghost", 0.0, "steel", 0.5
-        ));
-        TYPE_CHART.put("fire", Map.of(
-            "fire", 0.5, "water", 0.5, "grass", 2.0, "ice", 2.0, "bug", 2.0,
-            "rock", 0.5, "dragon", 0.5, "steel", 2.0
-        ));
-        TYPE_CHART.put("water", Map.of(
-            "fire", 2.0, "water", 0.5, "grass", 0.5, "ground", 2.0, "rock", 2.0,
-            "dragon", 0.5
-        ));
-        TYPE_CHART.put("electric", Map.of(
-            "water", 2.0, "electric", 0.5, "grass", 0.5, "ground", 0.0,
-            "flying", 2.0, "dragon", 0.5
-        ));
-        TYPE_CHART.put("grass", Map.of(
-            "fire", 0.5, "water", 2.0, "grass", 0.5, "poison", 0.5, "ground", 2.0,
-            "flying", 0.5, "bug", 0.5, "rock", 2.0, "dragon", 0.5, "steel", 0.5
-        ));
-        TYPE_CHART.put("ice", Map.of(
-            "fire", 0.5, "water", 0.5, "grass", 2.0, "ice", 0.5, "ground", 2.0,
-            "flying", 2.0, "dragon", 2.0, "steel", 0.5
-        ));
-        TYPE_CHART.put("fighting", Map.ofEntries(
-            Map.entry("normal", 2.0), Map.entry("ice", 2.0), Map.entry("poison", 0.5),
-            Map.entry("flying", 0.5), Map.entry("psychic", 0.5), Map.entry("bug", 0.5),
-            Map.entry("rock", 2.0), Map.entry("ghost", 0.0), Map.entry("dark", 2.0),
-            Map.entry("steel", 2.0), Map.entry("fairy", 0.5)
-        ));
-        TYPE_CHART.put("poison", Map.of(
-            "grass", 2.0, "poison", 0.5, "ground", 0.5, "rock", 0.5, "ghost", 0.5,
-            "steel", 0.0, "fairy", 2.0
-        ));
-        TYPE_CHART.put("ground", Map.of(
-            "fire", 2.0, "electric", 2.0, "grass", 0.5, "poison", 2.0, "flying", 0.0,
-            "bug", 0.5, "rock", 2.0, "steel", 2.0
-        ));
-        TYPE_CHART.put("flying", Map.of(
-            "electric", 0.5, "grass", 2.0, "fighting", 2.0, "bug", 2.0, "rock", 0.5,
-            "steel", 0.5
-        ));
-        TYPE_CHART.put("psychic", Map.of(
-            "fighting", 2.0, "poison", 2.0, "psychic", 0.5, "dark", 0.0, "steel", 0.5
-        ));
-        TYPE_CHART.put("bug", Map.ofEntries(
-            Map.entry("fire", 0.5), Map.entry("grass", 2.0), Map.entry("fighting", 0.5),
-            Map.entry("poison", 0.5), Map.entry("flying", 0.5), Map.entry("psychic", 2.0),
-            Map.entry("ghost", 0.5), Map.entry("dark", 2.0), Map.entry("steel", 0.5),
-            Map.entry("fairy", 0.5)
-        ));
-        TYPE_CHART.put("rock", Map.of(
-            "fire", 2.0, "ice", 2.0, "fighting", 0.5, "ground", 0.5, "flying", 2.0,
-            "bug", 2.0, "steel", 0.5
-        ));
-        TYPE_CHART.put("ghost", Map.of(
-            "normal", 0.0, "psychic", 2.0, "ghost", 2.0, "dark", 0.5
-        ));
-        TYPE_CHART.put("dragon", Map.of(
-            "dragon", 2.0, "steel", 0.5, "fairy", 0.0
-        ));
-        TYPE_CHART.put("dark", Map.of(
-            "fighting", 0.5, "psychic", 2.0, "ghost", 2.0, "dark", 0.5, "fairy", 0.5
-        ));
-        TYPE_CHART.put("steel", Map.of(
-            "fire", 0.5, "water", 0.5, "electric", 0.5, "ice", 2.0, "rock", 2.0,
-            "steel", 0.5, "fairy", 2.0
-        ));
-        TYPE_CHART.put("fairy", Map.of(
-            "fighting", 2.0, "poison", 0.5, "dragon", 2.0, "dark", 2.0, "steel", 0.5
-        ));
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            ordinals.put(TYPE_NAMES[i], i);
+        }
+        ORDINALS = Collections.unmodifiableMap(ordinals);
+        Arrays.fill(CHART, NEUTRAL);
+
+        // Formato: tipo atacante, valor, tipos defensores afectados
+        set("normal", RESISTED, "rock", "steel");
+        set("normal", IMMUNE, "ghost");
+        set("fire", RESISTED, "fire", "water", "rock", "dragon");
+        set("fire", SUPER, "grass", "ice", "bug", "steel");
+        set("water", RESISTED, "water", "grass", "dragon");
+        set("water", SUPER, "fire", "ground", "rock");
+        set("electric", RESISTED, "electric", "grass", "dragon");
+        set("electric", SUPER, "water", "flying");
+        set("electric", IMMUNE, "ground");
+        set("grass", RESISTED, "fire", "grass", "poison", "flying", "bug", "dragon", "steel");
+        set("grass", SUPER, "water", "ground", "rock");
+        set("ice", RESISTED, "fire", "water", "ice", "steel");
+        set("ice", SUPER, "grass", "ground", "flying", "dragon");
+        set("fighting", RESISTED, "poison", "flying", "psychic", "bug", "fairy");
+        set("fighting", SUPER, "normal", "ice", "rock", "dark", "steel");
+        set("fighting", IMMUNE, "ghost");
+        set("poison", RESISTED, "poison", "ground", "rock", "ghost");
+        set("poison", SUPER, "grass", "fairy");
+        set("poison", IMMUNE, "steel");
+        set("ground", RESISTED, "grass", "bug");
+        set("ground", SUPER, "fire", "electric", "poison", "rock", "steel");
+        set("ground", IMMUNE, "flying");
+        set("flying", RESISTED, "electric", "rock", "steel");
+        set("flying", SUPER, "grass", "fighting", "bug");
+        set("psychic", RESISTED, "psychic", "steel");
+        set("psychic", SUPER, "fighting", "poison");
+        set("psychic", IMMUNE, "dark");
+        set("bug", RESISTED, "fire", "fighting", "poison", "flying", "ghost", "steel", "fairy");
+        set("bug", SUPER, "grass", "psychic", "dark");
+        set("rock", RESISTED, "fighting", "ground", "steel");
+        set("rock", SUPER, "fire", "ice", "flying", "bug");
+        set("ghost", RESISTED, "dark");
+        set("ghost", SUPER, "psychic", "ghost");
+        set("ghost", IMMUNE, "normal");
+        set("dragon", RESISTED, "steel");
+        set("dragon", SUPER, "dragon");
+        set("dragon", IMMUNE, "fairy");
+        set("dark", RESISTED, "fighting", "dark", "fairy");
+        set("dark", SUPER, "psychic", "ghost");
+        set("steel", RESISTED, "fire", "water", "electric", "steel");
+        set("steel", SUPER, "ice", "rock", "fairy");
+        set("fairy", RESISTED, "fire", "poison", "steel");
+        set("fairy", SUPER, "fighting", "dragon", "dark");
+
+        for (int attack = 0; attack < TYPE_COUNT; attack++) {
+            for (int first = 0; first < SLOTS; first++) {
+                for (int second = 0; second < SLOTS; second++) {
+                    float value = 1.0f;
+                    if (first != NONE) value *= multiplier(attack, first);
+                    if (second != NONE && second != first) value *= multiplier(attack, second);
+                    DUAL_CHART[(attack * SLOTS + first) * SLOTS + second] = value;
+                }
+            }
+        }
+    }
+
+    private TypeEffectiveness() {
+    }
+
+    private static void set(String attackType, byte value, String... defenderTypes) {
+        int attack = ORDINALS.get(attackType);
+        for (String defenderType : defenderTypes) {
+            CHART[attack * TYPE_COUNT + ORDINALS.get(defenderType)] = value;
+        }
+    }
+
+    public static int ordinal(String type) {
+        if (type == null) return UNKNOWN;
+        Integer ordinal = ORDINALS.get(type);
+        if (ordinal == null) {
+            ordinal = ORDINALS.get(type.toLowerCase());
+        }
+        return ordinal != null ? ordinal : UNKNOWN;
+    }
+
+    public static String name(int ordinal) {
+        return ordinal >= 0 && ordinal < TYPE_COUNT ? TYPE_NAMES[ordinal] : null;
+    }
+
+    public static List<String> getAllTypes() {
+        return List.of(TYPE_NAMES);
+    }
+
+    public static float multiplier(int attackType, int defenderType) {
+        if (attackType < 0 || attackType >= TYPE_COUNT || defenderType < 0 || defenderType >= TYPE_COUNT) {
+            return 1.0f;
+        }
+        return MULTIPLIERS[CHART[attackType * TYPE_COUNT + defenderType]];
+    }
+
+    // Efectividad contra un defensor de uno o dos tipos; usar NONE (o UNKNOWN) en el hueco vacío
+    public static float effectiveness(int attackType, int firstType, int secondType) {
+        if (attackType < 0 || attackType >= TYPE_COUNT) return 1.0f;
+        int first = firstType < 0 || firstType > NONE ? NONE : firstType;
+        int second = secondType < 0 || secondType > NONE ? NONE : secondType;
+        return DUAL_CHART[(attackType * SLOTS + first) * SLOTS + second];
     }
 
     public static double getEffectiveness(String attackType, List<String> defenderTypes) {
+        int attack = ordinal(attackType);
+        if (attack == UNKNOWN || defenderTypes == null) return 1.0;
+
         double effectiveness = 1.0;
-        
-        for (String defenderType : defenderTypes) {
-            Map<String, Double> typeRelations = TYPE_CHART.getOrDefault(attackType, Collections.emptyMap());
-            effectiveness *= typeRelations.getOrDefault(defenderType, 1.0);
+        for (int i = 0; i < defenderTypes.size(); i++) {
+            effectiveness *= multiplier(attack, ordinal(defenderTypes.get(i)));
         }
-        
         return effectiveness;
     }
-} 
\ No newline at end of file
+}
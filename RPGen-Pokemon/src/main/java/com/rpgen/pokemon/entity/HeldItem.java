@@ -58,6 +58,10 @@ public class HeldItem {
         return new HashMap<>(extraEffects);
     }
 
+    public Object getExtraEffect(String key) {
+        return extraEffects.get(key);
+    }
+
     public Map<String, Object> toMap() {
         Map<String, Object> map = new HashMap<>();
         map.put("id", id);
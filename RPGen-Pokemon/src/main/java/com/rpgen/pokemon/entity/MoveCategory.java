@@ -0,0 +1,28 @@
+package com.rpgen.pokemon.entity;
+
+public enum MoveCategory {
+    PHYSICAL("physical"),
+    SPECIAL("special"),
+    STATUS("status");
+
+    private final String id;
+
+    MoveCategory(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public static MoveCategory fromId(String id) {
+        if (id != null) {
+            for (MoveCategory category : values()) {
+                if (category.id.equalsIgnoreCase(id)) {
+                    return category;
+                }
+            }
+        }
+        return PHYSICAL; // Mismo valor por defecto que usa Pokemon.initializeMoves
+    }
+}
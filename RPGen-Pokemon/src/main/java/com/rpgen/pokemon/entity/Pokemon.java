@@ -1,7 +1,9 @@
 package com.rpgen.pokemon.entity;
 
 import com.rpgen.core.entity.Entity;
+import com.rpgen.pokemon.data.MoveDatabase;
 import com.rpgen.pokemon.data.NatureDatabase;
+import com.rpgen.pokemon.data.TypeEffectiveness;
 import com.rpgen.core.action.GameAction;
 
 import java.util.List;
@@ -11,6 +13,16 @@ import java.util.Objects;
 import java.util.HashMap;
 
 public class Pokemon implements Entity {
+    public static final int STAT_HP = 0;
+    public static final int STAT_ATTACK = 1;
+    public static final int STAT_DEFENSE = 2;
+    public static final int STAT_SPECIAL_ATTACK = 3;
+    public static final int STAT_SPECIAL_DEFENSE = 4;
+    public static final int STAT_SPEED = 5;
+    public static final int STAT_COUNT = 6;
+    public static final int MAX_STAT_STAGE = 6;
+    private static final String[] STAT_NAMES = {"hp", "attack", "defense", "special_attack", "special_defense", "speed"};
+
     private final String id;
     private final String name;
     private int health;
@@ -39,6 +51,10 @@ public class Pokemon implements Entity {
     private Nature nature;
     private Stats stats;
     private int level = 50; // Nivel por defecto para combate
+    private transient int[] typeOrdinals;
+    // Estadísticas finales cacheadas; null indica que hay que recalcularlas
+    private transient volatile int[] finalStats;
+    private transient int[] statStages;
 
     public Pokemon(String id, String name, int maxHealth, int attack, int defense, 
                   List<String> types, int speed, int specialAttack, int specialDefense, String imageUrl, List<Map<String, Object>> moves) {
@@ -68,24 +84,48 @@ public class Pokemon implements Entity {
         initializeMoves();
     }
 
+    // Copia para combates aislados: comparte los datos inmutables y duplica el estado mutable
+    private Pokemon(Pokemon source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.health = source.health;
+        this.maxHealth = source.maxHealth;
+        this.baseAttack = source.baseAttack;
+        this.baseDefense = source.baseDefense;
+        this.types = source.types;
+        this.baseSpeed = source.baseSpeed;
+        this.baseSpecialAttack = source.baseSpecialAttack;
+        this.baseSpecialDefense = source.baseSpecialDefense;
+        this.imageUrl = source.imageUrl;
+        this.attackModifier = source.attackModifier;
+        this.defenseModifier = source.defenseModifier;
+        this.speedModifier = source.speedModifier;
+        this.specialAttackModifier = source.specialAttackModifier;
+        this.specialDefenseModifier = source.specialDefenseModifier;
+        this.status = source.status;
+        this.moves = source.moves;
+        this.selectedMoveIndices = source.selectedMoveIndices != null ? new ArrayList<>(source.selectedMoveIndices) : new ArrayList<>();
+        this.availableActions = source.availableActions;
+        this.abilities = source.abilities;
+        this.selectedAbility = source.selectedAbility;
+        this.heldItem = source.heldItem;
+        this.nature = source.nature;
+        this.stats = source.stats;
+        this.level = source.level;
+        this.typeOrdinals = source.typeOrdinals;
+        this.finalStats = source.finalStats;
+        this.statStages = source.statStages != null ? source.statStages.clone() : null;
+    }
+
+    public Pokemon copy() {
+        return new Pokemon(this);
+    }
+
     private void initializeMoves() {
         for (Map<String, Object> moveData : moves) {
-            String id = (String) moveData.getOrDefault("id", "move_" + System.currentTimeMillis());
-            String name = (String) moveData.getOrDefault("name", "Movimiento");
-            String type = (String) moveData.getOrDefault("type", "normal");
-            String category = (String) moveData.getOrDefault("category", "physical");
-            int power = ((Number) moveData.getOrDefault("power", 40)).intValue();
-            int accuracy = ((Number) moveData.getOrDefault("accuracy", 100)).intValue();
-            String description = (String) moveData.getOrDefault("description", "Un movimiento básico");
-            String statusEffect = (String) moveData.get("statusEffect");
-
-            GameAction move;
-            if (statusEffect != null) {
-                move = new StatusMove(id, name, type, category, power, accuracy, description, statusEffect);
-            } else {
-                move = new DamageMove(id, name, type, category, power, accuracy, description);
-            }
-            availableActions.add(move);
+            // Los movimientos del catálogo se comparten entre todas las especies
+            PokemonMove shared = MoveDatabase.getMove((String) moveData.get("id"));
+            availableActions.add(shared != null ? shared : MoveDatabase.createMove(moveData));
         }
     }
 
@@ -106,34 +146,57 @@ public class Pokemon implements Entity {
 
     @Override
     public int getMaxHealth() {
-        return calculateFinalHP();
+        return finalStats()[STAT_HP];
     }
 
     @Override
     public int getAttack() {
-        return calculateFinalStat("attack");
+        return finalStats()[STAT_ATTACK];
     }
 
     @Override
     public int getDefense() {
-        return calculateFinalStat("defense");
+        return finalStats()[STAT_DEFENSE];
     }
 
     public List<String> getTypes() {
         return types;
     }
 
+    public int getPrimaryTypeOrdinal() {
+        return resolveTypeOrdinals()[0];
+    }
+
+    public int getSecondaryTypeOrdinal() {
+        return resolveTypeOrdinals()[1];
+    }
+
+    private int[] resolveTypeOrdinals() {
+        int[] ordinals = typeOrdinals;
+        if (ordinals == null) {
+            ordinals = new int[] {TypeEffectiveness.NONE, TypeEffectiveness.NONE};
+            if (types != null) {
+                for (int i = 0; i < Math.min(2, types.size()); i++) {
+                    int ordinal = TypeEffectiveness.ordinal(types.get(i));
+                    ordinals[i] = ordinal == TypeEffectiveness.UNKNOWN ? TypeEffectiveness.NONE : ordinal;
+                }
+            }
+            typeOrdinals = ordinals;
+        }
+        return ordinals;
+    }
+
     @Override
     public int getSpeed() {
-        return calculateFinalStat("speed");
+        return finalStats()[STAT_SPEED];
     }
 
     public int getSpecialAttack() {
-        return calculateFinalStat("special_attack");
+        return finalStats()[STAT_SPECIAL_ATTACK];
     }
 
     public int getSpecialDefense() {
-        return calculateFinalStat("special_defense");
+        return finalStats()[STAT_SPECIAL_DEFENSE];
     }
 
     public String getImageUrl() {
@@ -152,6 +215,33 @@ public class Pokemon implements Entity {
         this.selectedMoveIndices = indices;
     }
 
+    // Movimientos usables en combate: los seleccionados o, si no hay selección, todos
+    public int getMovesetSize() {
+        if (availableActions == null) return 0;
+        if (selectedMoveIndices == null || selectedMoveIndices.isEmpty()) return availableActions.size();
+        return selectedMoveIndices.size();
+    }
+
+    public PokemonMove getMovesetMove(int slot) {
+        if (slot < 0 || slot >= getMovesetSize()) return null;
+        int index = selectedMoveIndices == null || selectedMoveIndices.isEmpty() ? slot : selectedMoveIndices.get(slot);
+        if (index < 0 || index >= availableActions.size()) return null;
+        GameAction action = availableActions.get(index);
+        return action instanceof PokemonMove ? (PokemonMove) action : null;
+    }
+
+    public int getMovesetSlot(String moveId) {
+        if (moveId == null) return -1;
+        int size = getMovesetSize();
+        for (int slot = 0; slot < size; slot++) {
+            PokemonMove move = getMovesetMove(slot);
+            if (move != null && moveId.equals(move.getId())) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
     // Nuevos getters y setters
     public List<Ability> getAbilities() {
         return new ArrayList<>(abilities);
@@ -180,6 +270,7 @@ public class Pokemon implements Entity {
 
     public void setHeldItem(HeldItem item) {
         this.heldItem = item;
+        invalidateStats();
     }
 
     public Nature getNature() {
@@ -188,6 +279,7 @@ public class Pokemon implements Entity {
 
     public void setNature(Nature nature) {
         this.nature = nature;
+        invalidateStats();
     }
 
     public Stats getStats() {
@@ -196,6 +288,7 @@ public class Pokemon implements Entity {
 
     public void setStats(Stats stats) {
         this.stats = stats;
+        invalidateStats();
     }
 
     public int getLevel() {
@@ -204,6 +297,65 @@ public class Pokemon implements Entity {
 
     public void setLevel(int level) {
         this.level = Math.max(1, Math.min(100, level));
+        invalidateStats();
+    }
+
+    public int getStatStage(int stat) {
+        return statStages != null ? statStages[stat] : 0;
+    }
+
+    public void setStatStage(int stat, int stage) {
+        if (stat <= STAT_HP || stat >= STAT_COUNT) return;
+        int clamped = Math.max(-MAX_STAT_STAGE, Math.min(MAX_STAT_STAGE, stage));
+        if (statStages == null) {
+            if (clamped == 0) return;
+            statStages = new int[STAT_COUNT];
+        }
+        if (statStages[stat] != clamped) {
+            statStages[stat] = clamped;
+            invalidateStats();
+        }
+    }
+
+    // Devuelve cuántas etapas se han aplicado realmente tras limitar a [-6, 6]
+    public int modifyStatStage(int stat, int delta) {
+        int before = getStatStage(stat);
+        setStatStage(stat, before + delta);
+        return getStatStage(stat) - before;
+    }
+
+    public void resetStatStages() {
+        if (statStages != null) {
+            statStages = null;
+            invalidateStats();
+        }
+    }
+
+    private void invalidateStats() {
+        finalStats = null;
+    }
+
+    private int[] finalStats() {
+        int[] cached = finalStats;
+        if (cached == null) {
+            cached = computeFinalStats();
+            finalStats = cached;
+        }
+        return cached;
+    }
+
+    private int[] computeFinalStats() {
+        int[] computed = new int[STAT_COUNT];
+        computed[STAT_HP] = calculateFinalHP();
+        for (int stat = STAT_ATTACK; stat < STAT_COUNT; stat++) {
+            computed[stat] = applyStage(calculateFinalStat(STAT_NAMES[stat]), getStatStage(stat));
+        }
+        return computed;
+    }
+
+    private static int applyStage(int value, int stage) {
+        if (stage == 0) return value;
+        return stage > 0 ? value * (2 + stage) / 2 : value * 2 / (2 - stage);
     }
 
     // Métodos para calcular estadísticas finales
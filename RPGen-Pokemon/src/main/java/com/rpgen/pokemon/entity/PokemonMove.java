@@ -2,6 +2,7 @@ package com.rpgen.pokemon.entity;
 
 import com.rpgen.core.action.GameAction;
 import com.rpgen.core.entity.Entity;
+import com.rpgen.pokemon.data.TypeEffectiveness;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -15,6 +16,9 @@ public abstract class PokemonMove implements GameAction {
     protected final String description;
     protected final int cooldown;
     protected final Map<String, Object> properties;
+    // Representación compilada para el cálculo de daño (resuelta una sola vez)
+    protected final transient int typeOrdinal;
+    protected final transient MoveCategory moveCategory;
 
     public PokemonMove(String id, String name, String type, String category, int power, int accuracy, String description, int cooldown) {
         this.id = id;
@@ -30,6 +34,8 @@ public abstract class PokemonMove implements GameAction {
         properties.put("category", category);
         properties.put("power", power);
         properties.put("accuracy", accuracy);
+        this.typeOrdinal = TypeEffectiveness.ordinal(type);
+        this.moveCategory = MoveCategory.fromId(category);
     }
 
     @Override
@@ -47,6 +53,30 @@ public abstract class PokemonMove implements GameAction {
         return description;
     }
 
+    public String getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getPower() {
+        return power;
+    }
+
+    public int getAccuracy() {
+        return accuracy;
+    }
+
+    public int getTypeOrdinal() {
+        return typeOrdinal;
+    }
+
+    public MoveCategory getMoveCategory() {
+        return moveCategory;
+    }
+
     @Override
     public int getCooldown() {
         return cooldown;
@@ -0,0 +1,39 @@
+package com.rpgen.pokemon.entity;
+
+public enum StatusCondition {
+    PARALYSIS("paralysis"),
+    BURN("burn"),
+    POISON("poison"),
+    SLEEP("sleep"),
+    FREEZE("freeze"),
+    CONFUSION("confusion");
+
+    public static final byte NONE_CODE = 0;
+    public static final byte UNKNOWN_CODE = -1;
+    private static final StatusCondition[] VALUES = values();
+
+    private final String id;
+
+    StatusCondition(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // Código compacto para estados planos: 0 sin estado, -1 estado no reconocido
+    public static byte encode(String status) {
+        if (status == null) return NONE_CODE;
+        for (StatusCondition condition : VALUES) {
+            if (condition.id.equalsIgnoreCase(status)) {
+                return (byte) (condition.ordinal() + 1);
+            }
+        }
+        return UNKNOWN_CODE;
+    }
+
+    public static String decode(byte code) {
+        return code > 0 && code <= VALUES.length ? VALUES[code - 1].id : null;
+    }
+}
@@ -1,11 +1,9 @@
 package com.rpgen.pokemon.entity;
 
 import com.rpgen.core.entity.Entity;
-
-import java.util.Random;
+import com.rpgen.pokemon.random.BattleRandom;
 
 public class StatusMove extends PokemonMove {
-    private static final Random random = new Random();
     private final String statusEffect;
 
     public StatusMove(String id, String name, String type, String category, int power, int accuracy, 
@@ -21,8 +19,9 @@ public class StatusMove extends PokemonMove {
         
         Pokemon targetPokemon = (Pokemon) target;
         
-        // Verificar precisión
-        if (random.nextInt(100) >= accuracy) {
+        // Verificar precisión (el motor de combate no aplica movimientos de estado, así que no hay
+        // generador del combate que usar)
+        if (BattleRandom.current().nextInt(100) >= accuracy) {
             return; // El movimiento falla
         }
         
@@ -0,0 +1,90 @@
+package com.rpgen.pokemon.random;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Fuente de aleatoriedad de un combate. Cada combate debe tener la suya (o un split de otra)
+// para que las simulaciones paralelas no compartan generador y sean reproducibles con semilla.
+// Está fuera de battle para que entity y data puedan usarla sin depender del motor
+public interface BattleRandom {
+    int nextInt(int bound);
+
+    double nextDouble();
+
+    long nextLong();
+
+    // Nuevo generador independiente, apto para entregar a otro hilo o a un combate derivado
+    BattleRandom split();
+
+    default boolean chance(int percent) {
+        return nextInt(100) < percent;
+    }
+
+    static BattleRandom seeded(long seed) {
+        return new SplittableBattleRandom(new SplittableRandom(seed));
+    }
+
+    static BattleRandom create() {
+        return new SplittableBattleRandom(new SplittableRandom());
+    }
+
+    // Generador del hilo actual para código sin combate asociado (sin contención entre hilos)
+    static BattleRandom current() {
+        return ThreadLocalBattleRandom.INSTANCE;
+    }
+
+    final class SplittableBattleRandom implements BattleRandom {
+        private final SplittableRandom random;
+
+        private SplittableBattleRandom(SplittableRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+
+        @Override
+        public double nextDouble() {
+            return random.nextDouble();
+        }
+
+        @Override
+        public long nextLong() {
+            return random.nextLong();
+        }
+
+        @Override
+        public BattleRandom split() {
+            return new SplittableBattleRandom(random.split());
+        }
+    }
+
+    final class ThreadLocalBattleRandom implements BattleRandom {
+        private static final ThreadLocalBattleRandom INSTANCE = new ThreadLocalBattleRandom();
+
+        private ThreadLocalBattleRandom() {
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+
+        @Override
+        public double nextDouble() {
+            return ThreadLocalRandom.current().nextDouble();
+        }
+
+        @Override
+        public long nextLong() {
+            return ThreadLocalRandom.current().nextLong();
+        }
+
+        @Override
+        public BattleRandom split() {
+            return seeded(ThreadLocalRandom.current().nextLong());
+        }
+    }
+}
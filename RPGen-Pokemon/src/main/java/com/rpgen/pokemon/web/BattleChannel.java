@@ -0,0 +1,231 @@
+package com.rpgen.pokemon.web;
+
+import com.google.gson.Gson;
+import com.rpgen.pokemon.battle.BattleEvent;
+import com.rpgen.pokemon.battle.PokemonBattleEngine;
+import com.rpgen.pokemon.battle.PokemonBattleListener;
+import com.rpgen.pokemon.battle.PokemonBattleRegistry;
+import com.rpgen.pokemon.entity.Pokemon;
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sesiones WebSocket suscritas a cada combate. Cada combate que recibe órdenes (por WebSocket o por las rutas
+// HTTP) lleva registrado un Feed que escucha los sucesos del motor; al terminar la orden se recogen en el
+// orden en que pasaron (movimiento, daño, debilitado, cambio, final del combate) y se envían a todos los
+// suscritos. Las rutas HTTP devuelven esos mismos eventos
+final class BattleChannel {
+    private static final ConcurrentHashMap<String, Set<Session>> subscribers = new ConcurrentHashMap<>();
+    // Uno por combate, desde su primera orden hasta que sale del registro
+    private static final ConcurrentHashMap<String, Feed> feeds = new ConcurrentHashMap<>();
+    private static final Gson gson = new Gson();
+
+    static {
+        // Un combate borrado o expulsado deja de tener suscritos; se les avisa para que no esperen más turnos
+        PokemonBattleRegistry.getInstance().addRemovalListener(BattleChannel::close);
+    }
+
+    private BattleChannel() {
+    }
+
+    static void subscribe(String battleId, Session session) {
+        subscribers.computeIfAbsent(battleId, id -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    static void unsubscribe(String battleId, Session session) {
+        Set<Session> sessions = subscribers.get(battleId);
+        if (sessions == null) return;
+        sessions.remove(session);
+        if (sessions.isEmpty()) subscribers.remove(battleId, sessions);
+    }
+
+    static void close(String battleId) {
+        feeds.remove(battleId);
+        Set<Session> sessions = subscribers.remove(battleId);
+        if (sessions == null) return;
+        String frame = messageFrame("closed", "battleId", battleId);
+        for (Session session : sessions) {
+            send(session, frame);
+        }
+    }
+
+    // Empieza a recoger los sucesos de una orden; con el cerrojo del combate tomado, igual que take()
+    static Feed listen(String battleId, PokemonBattleEngine battle) {
+        Feed feed = feeds.computeIfAbsent(battleId, id -> {
+            Feed created = new Feed(battle);
+            battle.registerBattleListener(created);
+            return created;
+        });
+        feed.start();
+        return feed;
+    }
+
+    // Respuesta de una elección. Si con ella ya han elegido los dos bandos, el turno se ha resuelto dentro de
+    // esta misma petición y se devuelve lo ocurrido; si no, qué bandos faltan. Los sucesos de la orden se
+    // envían también a los clientes conectados por WebSocket. La usan todas las rutas HTTP que reciben órdenes
+    static Map<String, Object> commitResult(String battleId, PokemonBattleEngine battle, Feed feed, String message) {
+        List<Map<String, Object>> events = feed.take();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("message", message);
+        boolean resolved = battle.getTurnNumber() != feed.getStartTurn();
+        response.put("turnResolved", resolved);
+        if (resolved) {
+            response.put("turn", battle.getTurnNumber());
+            response.put("events", events);
+            response.put("battleOver", battle.isBattleOver());
+            response.put("winner", battle.getWinningTeam());
+        } else {
+            List<Integer> waitingFor = new ArrayList<>(2);
+            if (!battle.hasCommittedAction(true)) waitingFor.add(1);
+            if (!battle.hasCommittedAction(false)) waitingFor.add(2);
+            response.put("waitingFor", waitingFor);
+        }
+        publish(battleId, turnFrame(battle.getTurnNumber(), events));
+        return response;
+    }
+
+    static String turnFrame(int turn, List<Map<String, Object>> events) {
+        if (events.isEmpty()) return null;
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "turn");
+        frame.put("turn", turn);
+        frame.put("events", events);
+        return gson.toJson(frame);
+    }
+
+    static void publish(String battleId, String frame) {
+        if (frame == null) return;
+        Set<Session> sessions = subscribers.get(battleId);
+        if (sessions == null) return;
+        for (Session session : sessions) {
+            send(session, frame);
+        }
+    }
+
+    // Envío asíncrono: una sesión lenta no retiene a las demás
+    static void send(Session session, String frame) {
+        if (session.isOpen()) {
+            session.getRemote().sendStringByFuture(frame);
+        }
+    }
+
+    // Foto completa para quien se une: equipos, vida, estados y activos
+    static String stateFrame(String battleId, PokemonBattleEngine battle, int team) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "state");
+        frame.put("battleId", battleId);
+        frame.put("team", team);
+        frame.put("turn", battle.getTurnNumber());
+        frame.put("over", battle.isBattleOver());
+        frame.put("active1", battle.getActiveSlot(true));
+        frame.put("active2", battle.getActiveSlot(false));
+        frame.put("team1", describeTeam(battle.getTeam1()));
+        frame.put("team2", describeTeam(battle.getTeam2()));
+        return gson.toJson(frame);
+    }
+
+    static String messageFrame(String type, String key, Object value) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        frame.put(key, value);
+        return gson.toJson(frame);
+    }
+
+    private static List<Map<String, Object>> describeTeam(List<Pokemon> team) {
+        List<Map<String, Object>> entries = new ArrayList<>(team.size());
+        for (Pokemon pokemon : team) {
+            List<String> moves = new ArrayList<>(pokemon.getMovesetSize());
+            for (int slot = 0; slot < pokemon.getMovesetSize(); slot++) {
+                moves.add(pokemon.getMovesetMove(slot) != null ? pokemon.getMovesetMove(slot).getName() : null);
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", pokemon.getId());
+            entry.put("name", pokemon.getName());
+            entry.put("hp", pokemon.getHealth());
+            entry.put("maxHp", pokemon.getMaxHealth());
+            entry.put("status", pokemon.getStatus());
+            entry.put("moves", moves);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // Convierte cada suceso del motor en un evento JSON y lo guarda hasta que la orden en curso lo recoge
+    static final class Feed implements PokemonBattleListener {
+        private final PokemonBattleEngine battle;
+        private List<Map<String, Object>> events = new ArrayList<>();
+        private int startTurn;
+
+        private Feed(PokemonBattleEngine battle) {
+            this.battle = battle;
+        }
+
+        // Lo que no recogió ninguna orden (p. ej. los cambios al empezar el combate) ya no interesa
+        private void start() {
+            events.clear();
+            startTurn = battle.getTurnNumber();
+        }
+
+        // Turno del combate cuando empezó la orden
+        int getStartTurn() {
+            return startTurn;
+        }
+
+        List<Map<String, Object>> take() {
+            List<Map<String, Object>> taken = events;
+            events = new ArrayList<>();
+            return taken;
+        }
+
+        @Override
+        public void onBattleEvent(BattleEvent event) {
+            int side = event.isTeam1() ? 1 : 2;
+            Map<String, Object> entry;
+            switch (event.getType()) {
+                case MOVE_USED:
+                    entry = event("move", side, event.getSlot());
+                    entry.put("name", event.getSource().getName());
+                    entry.put("move", event.getMove().getName());
+                    break;
+                case DAMAGE:
+                    // El evento va a nombre de quien recibe el golpe, que es el activo del otro bando
+                    entry = event("damage", 3 - side, battle.getActiveSlot(!event.isTeam1()));
+                    entry.put("amount", event.getAmount());
+                    entry.put("hp", event.getHp());
+                    entry.put("maxHp", event.getTarget().getMaxHealth());
+                    entry.put("effectiveness", event.getEffectiveness());
+                    break;
+                case FAINT:
+                    entry = event("faint", side, event.getSlot());
+                    break;
+                case SWITCH:
+                    entry = event("switch", side, event.getSlot());
+                    entry.put("name", event.getSource().getName());
+                    break;
+                case ITEM_TRIGGERED:
+                    entry = event("item", side, event.getSlot());
+                    entry.put("item", event.getItemId());
+                    entry.put("move", event.getMove() != null ? event.getMove().getName() : null);
+                    break;
+                case TURN_END:
+                    if (event.getWinner() == 0) return;
+                    entry = new LinkedHashMap<>();
+                    entry.put("e", "end");
+                    entry.put("winner", event.getWinner());
+                    break;
+                default:
+                    return;
+            }
+            events.add(entry);
+        }
+    }
+
+    private static Map<String, Object> event(String type, int side, int slot) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("e", type);
+        event.put("team", side);
+        event.put("slot", slot);
+        return event;
+    }
+}
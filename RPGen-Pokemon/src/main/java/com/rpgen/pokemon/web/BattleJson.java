@@ -0,0 +1,139 @@
+package com.rpgen.pokemon.web;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.rpgen.core.action.GameAction;
+import com.rpgen.pokemon.data.MoveDatabase;
+import com.rpgen.pokemon.entity.PokemonMove;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Gson de los endpoints de combate: decodifica los cuerpos directamente a DTOs tipados en una sola
+// pasada. PokemonMove es abstracta, así que se construye DamageMove o StatusMove según traiga statusEffect
+final class BattleJson {
+    private static final Gson gson = new GsonBuilder()
+        .registerTypeHierarchyAdapter(PokemonMove.class, new PokemonMoveAdapter().nullSafe())
+        .registerTypeAdapterFactory(new GameActionAdapterFactory())
+        .create();
+
+    private BattleJson() {
+    }
+
+    static Gson gson() {
+        return gson;
+    }
+
+    // Solo recoge los campos que trae el cuerpo; los valores por defecto y la elección entre DamageMove y
+    // StatusMove son los de MoveDatabase.createMove
+    private static final class PokemonMoveAdapter extends TypeAdapter<PokemonMove> {
+        @Override
+        public PokemonMove read(JsonReader in) throws IOException {
+            Map<String, Object> moveData = new HashMap<>(16);
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case "id":
+                    case "name":
+                    case "type":
+                    case "category":
+                    case "description":
+                    case "statusEffect":
+                        moveData.put(field, in.nextString());
+                        break;
+                    case "power":
+                    case "accuracy":
+                        moveData.put(field, in.nextInt());
+                        break;
+                    case "properties":
+                        // Solo interesa statusEffect; el resto se recalcula en el constructor
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            if ("statusEffect".equals(in.nextName()) && in.peek() == JsonToken.STRING) {
+                                moveData.putIfAbsent("statusEffect", in.nextString());
+                            } else {
+                                in.skipValue();
+                            }
+                        }
+                        in.endObject();
+                        break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return MoveDatabase.createMove(moveData);
+        }
+
+        @Override
+        public void write(JsonWriter out, PokemonMove move) throws IOException {
+            out.beginObject();
+            out.name("id").value(move.getId());
+            out.name("name").value(move.getName());
+            out.name("type").value(move.getType());
+            out.name("category").value(move.getCategory());
+            out.name("power").value(move.getPower());
+            out.name("accuracy").value(move.getAccuracy());
+            out.name("description").value(move.getDescription());
+            out.name("cooldown").value(move.getCooldown());
+            Map<String, Object> properties = move.getProperties();
+            if (properties != null) {
+                Object statusEffect = properties.get("statusEffect");
+                if (statusEffect != null) {
+                    out.name("statusEffect").value(statusEffect.toString());
+                }
+                out.name("properties").beginObject();
+                for (Map.Entry<String, Object> property : properties.entrySet()) {
+                    out.name(property.getKey());
+                    Object value = property.getValue();
+                    if (value == null) out.nullValue();
+                    else if (value instanceof Number) out.value((Number) value);
+                    else if (value instanceof Boolean) out.value((Boolean) value);
+                    else out.value(value.toString());
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+    }
+
+    // Permite decodificar List<GameAction> (availableActions de Pokemon) como movimientos
+    private static final class GameActionAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+            if (typeToken.getRawType() != GameAction.class) return null;
+            TypeAdapter<PokemonMove> moveAdapter = gson.getAdapter(PokemonMove.class);
+            return (TypeAdapter<T>) new TypeAdapter<GameAction>() {
+                @Override
+                public GameAction read(JsonReader in) throws IOException {
+                    return moveAdapter.read(in);
+                }
+
+                @Override
+                @SuppressWarnings({"rawtypes"})
+                public void write(JsonWriter out, GameAction action) throws IOException {
+                    if (action == null) {
+                        out.nullValue();
+                    } else if (action instanceof PokemonMove) {
+                        moveAdapter.write(out, (PokemonMove) action);
+                    } else {
+                        ((TypeAdapter) gson.getAdapter(action.getClass())).write(out, action);
+                    }
+                }
+            };
+        }
+    }
+}
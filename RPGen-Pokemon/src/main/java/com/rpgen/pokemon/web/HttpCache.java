@@ -0,0 +1,138 @@
+package com.rpgen.pokemon.web;
+
+import spark.Request;
+import spark.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Respuestas GET que cambian poco (naturalezas, objetos, especies): el JSON se genera una vez por versión de
+// los datos y se guarda junto a su versión comprimida con gzip y un ETag calculado sobre el contenido. Un
+// cliente que ya lo tiene recibe 304 sin cuerpo; el resto recibe los bytes guardados sin volver a codificar.
+// Como el ETag depende del contenido y no de la versión, sigue valiendo aunque la versión cambie por otra cosa
+final class HttpCache {
+    // Por debajo de esto gzip apenas ahorra y no compensa
+    private static final int MIN_GZIP_BYTES = 1024;
+    private static final String GZIP_SUFFIX = "-gz";
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    HttpCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    // Devuelve lo que debe devolver la ruta de Spark. render solo se llama si no hay entrada para esa versión
+    Object send(Request req, Response res, String key, long version, Supplier<byte[]> render) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            entry = new Entry(version, render.get());
+            if (entries.size() >= maxEntries) entries.clear();
+            entries.put(key, entry);
+        }
+
+        boolean gzip = entry.gzip != null && acceptsGzip(req.headers("Accept-Encoding"));
+        String etag = gzip ? entry.gzipEtag : entry.etag;
+        res.header("ETag", etag);
+        res.header("Cache-Control", "no-cache");
+        res.header("Vary", "Accept-Encoding");
+        res.type("application/json");
+
+        if (matches(req.headers("If-None-Match"), entry.hash)) {
+            res.status(304);
+            return "";
+        }
+        if (!gzip) {
+            return entry.body;
+        }
+
+        // Spark comprime por su cuenta si ve Content-Encoding: gzip, así que el cuerpo ya comprimido se escribe
+        // directamente; con la respuesta confirmada Spark no vuelve a escribir nada
+        res.header("Content-Encoding", "gzip");
+        res.raw().setContentLength(entry.gzip.length);
+        OutputStream out = res.raw().getOutputStream();
+        out.write(entry.gzip);
+        res.raw().flushBuffer();
+        return "";
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] coding = part.trim().split(";");
+            if (coding[0].trim().equalsIgnoreCase("gzip") || coding[0].trim().equals("*")) {
+                return coding.length < 2 || !coding[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Acepta la lista separada por comas, las etiquetas débiles y "*". La variante gzip comparte contenido,
+    // así que su ETag también vale
+    private static boolean matches(String ifNoneMatch, String hash) {
+        if (ifNoneMatch == null) return false;
+        for (String part : ifNoneMatch.split(",")) {
+            String tag = part.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            tag = tag.replace("\"", "");
+            if (tag.endsWith(GZIP_SUFFIX)) tag = tag.substring(0, tag.length() - GZIP_SUFFIX.length());
+            if (tag.equals(hash)) return true;
+        }
+        return false;
+    }
+
+    static byte[] utf8(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        final long version;
+        final byte[] body;
+        final byte[] gzip;
+        final String hash;
+        final String etag;
+        final String gzipEtag;
+
+        Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+            this.gzip = body.length >= MIN_GZIP_BYTES ? compress(body) : null;
+            this.hash = hash(body);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + GZIP_SUFFIX + "\"";
+        }
+
+        private static byte[] compress(byte[] body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                // Se escribe en memoria; no puede fallar
+                throw new IllegalStateException(e);
+            }
+            return out.toByteArray();
+        }
+
+        // 128 bits de SHA-256 en hexadecimal
+        private static String hash(byte[] body) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                StringBuilder hex = new StringBuilder(32);
+                for (int i = 0; i < 16; i++) {
+                    hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+                }
+                return hex.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
-package com.rpgen.pokemon.battle;
+package com.rpgen.pokemon.web;
 
 import com.rpgen.core.entity.Entity;
+import com.rpgen.pokemon.battle.PokemonBattleEngine;
+import com.rpgen.pokemon.battle.PokemonBattleRegistry;
 import com.rpgen.pokemon.entity.Pokemon;
 import com.rpgen.pokemon.entity.PokemonMove;
 import com.rpgen.core.action.GameAction;
@@ -10,25 +12,27 @@ import org.springframework.http.ResponseEntity;
 import java.util.*;
 import java.lang.reflect.*;
 
+// Las rutas que reciben órdenes responden igual que las de PokemonBattleServer (BattleChannel.commitResult)
 @RestController
 @RequestMapping("/api/pokemon-battle")
 public class PokemonBattleController {
-    private PokemonBattleEngine battleSystem;
-    private Map<String, PokemonBattleEngine> activeBattles;
+    private final PokemonBattleRegistry activeBattles;
 
     public PokemonBattleController() {
-        this.activeBattles = new HashMap<>();
+        this.activeBattles = PokemonBattleRegistry.getInstance();
     }
 
     @PostMapping("/start")
     public ResponseEntity<?> startBattle(@RequestBody BattleRequest request) {
         try {
-            battleSystem = new PokemonBattleEngine();
+            PokemonBattleEngine battleSystem = new PokemonBattleEngine();
             List<Pokemon> team1 = request.getTeam1();
             List<Pokemon> team2 = request.getTeam2();
             battleSystem.initialize(team1, team2);
-            String battleId = UUID.randomUUID().toString();
-            activeBattles.put(battleId, battleSystem);
+            String battleId = activeBattles.register(battleSystem);
+            if (battleId == null) {
+                return ResponseEntity.status(503).body(new ErrorResponse("Se ha alcanzado el número máximo de batallas activas"));
+            }
             return ResponseEntity.ok(new BattleResponse(battleId, "Batalla iniciada"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
@@ -39,13 +43,14 @@ public class PokemonBattleController {
     public ResponseEntity<?> performAction(
             @PathVariable String battleId,
             @RequestBody ActionRequest request) {
-        try {
-            PokemonBattleEngine battle = activeBattles.get(battleId);
-            if (battle == null) {
+        try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(battleId)) {
+            if (lease == null) {
                 return ResponseEntity.notFound().build();
             }
+            PokemonBattleEngine battle = lease.getBattle();
+            BattleChannel.Feed feed = BattleChannel.listen(battleId, battle);
             battle.addAction(request.getSource(), request.getTarget(), (PokemonMove) request.getAction());
-            return ResponseEntity.ok(new ActionResponse("Acción registrada"));
+            return ResponseEntity.ok(BattleChannel.commitResult(battleId, battle, feed, "Acción registrada"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -55,13 +60,19 @@ public class PokemonBattleController {
     public ResponseEntity<?> switchPokemon(
             @PathVariable String battleId,
             @RequestBody SwitchRequest request) {
-        try {
-            PokemonBattleEngine battle = activeBattles.get(battleId);
-            if (battle == null) {
+        try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(battleId)) {
+            if (lease == null) {
                 return ResponseEntity.notFound().build();
             }
-            battle.switchPokemon(request.getNewPokemon(), request.isTeam1());
-            return ResponseEntity.ok(new SwitchResponse("Pokémon cambiado"));
+            PokemonBattleEngine battle = lease.getBattle();
+            BattleChannel.Feed feed = BattleChannel.listen(battleId, battle);
+            Pokemon result = battle.switchPokemon(request.getNewPokemon(), request.isTeam1());
+            if (result == null) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("No se pudo cambiar el Pokémon"));
+            }
+            Map<String, Object> response = BattleChannel.commitResult(battleId, battle, feed, "Pokémon cambiado");
+            response.put("newActivePokemon", result);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -69,14 +80,14 @@ public class PokemonBattleController {
 
     @PostMapping("/{battleId}/process-turn")
     public ResponseEntity<?> processTurn(@PathVariable String battleId) {
-        try {
-            PokemonBattleEngine battle = activeBattles.get(battleId);
-            if (battle == null) {
+        try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(battleId)) {
+            if (lease == null) {
                 return ResponseEntity.notFound().build();
             }
-
+            PokemonBattleEngine battle = lease.getBattle();
+            BattleChannel.Feed feed = BattleChannel.listen(battleId, battle);
             battle.processTurn();
-            return ResponseEntity.ok(new TurnResponse("Turno procesado"));
+            return ResponseEntity.ok(BattleChannel.commitResult(battleId, battle, feed, "Turno procesado"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
@@ -111,14 +122,6 @@ public class PokemonBattleController {
         public GameAction getAction() { return action; }
     }
 
-    private static class ActionResponse {
-        private String message;
-
-        public ActionResponse(String message) {
-            this.message = message;
-        }
-    }
-
     private static class SwitchRequest {
         private Pokemon newPokemon;
         private boolean isTeam1;
@@ -127,22 +130,6 @@ public class PokemonBattleController {
         public boolean isTeam1() { return isTeam1; }
     }
 
-    private static class SwitchResponse {
-        private String message;
-
-        public SwitchResponse(String message) {
-            this.message = message;
-        }
-    }
-
-    private static class TurnResponse {
-        private String message;
-
-        public TurnResponse(String message) {
-            this.message = message;
-        }
-    }
-
     private static class ErrorResponse {
         private String error;
 
@@ -8,18 +8,23 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
-import com.google.gson.reflect.TypeToken;
+import com.rpgen.pokemon.battle.PokemonBattleAI;
 import com.rpgen.pokemon.battle.PokemonBattleEngine;
+import com.rpgen.pokemon.battle.PokemonBattleRegistry;
+import com.rpgen.pokemon.data.TeamBuilder;
+import com.rpgen.pokemon.data.TypeEffectiveness;
 import com.rpgen.pokemon.entity.Pokemon;
 import com.rpgen.pokemon.entity.PokemonMove;
 
 public class PokemonBattleServer {
     private final Gson gson;
-    private final Map<String, PokemonBattleEngine> activeBattles;
+    private final PokemonBattleRegistry activeBattles;
+    private final PokemonBattleAI battleAI;
 
     public PokemonBattleServer() {
-        this.gson = new Gson();
-        this.activeBattles = new HashMap<>();
+        this.gson = BattleJson.gson();
+        this.activeBattles = PokemonBattleRegistry.getInstance();
+        this.battleAI = new PokemonBattleAI();
     }
 
     public void init() {
@@ -49,15 +54,9 @@ public class PokemonBattleServer {
                 System.out.println("Recibida solicitud para iniciar batalla");
                 //System.out.println("Body de la solicitud: " + req.body());
                 
-                Map<String, Object> data = gson.fromJson(req.body(), new TypeToken<Map<String, Object>>(){}.getType());
-                List<Pokemon> team1 = gson.fromJson(
-                    gson.toJson(data.get("team1")),
-                    new com.google.gson.reflect.TypeToken<List<Pokemon>>(){}.getType()
-                );
-                List<Pokemon> team2 = gson.fromJson(
-                    gson.toJson(data.get("team2")),
-                    new com.google.gson.reflect.TypeToken<List<Pokemon>>(){}.getType()
-                );
+                StartRequest data = gson.fromJson(req.body(), StartRequest.class);
+                List<Pokemon> team1 = data != null ? data.team1 : null;
+                List<Pokemon> team2 = data != null ? data.team2 : null;
 
                 if (team1 == null || team2 == null) {
                     res.status(400);
@@ -66,10 +65,15 @@ public class PokemonBattleServer {
                     ));
                 }
 
-                String battleId = UUID.randomUUID().toString();
                 PokemonBattleEngine battle = new PokemonBattleEngine();
                 battle.initialize(team1, team2);
-                activeBattles.put(battleId, battle);
+                String battleId = activeBattles.register(battle);
+                if (battleId == null) {
+                    res.status(503);
+                    return gson.toJson(Map.of(
+                        "error", "Se ha alcanzado el número máximo de batallas activas"
+                    ));
+                }
 
                 System.out.println("Batalla iniciada con ID: " + battleId);
                 //System.out.println("Equipo 1: " + team1.size() + " Pokémon");
@@ -90,11 +94,63 @@ public class PokemonBattleServer {
             }
         });
 
+        // Endpoint para iniciar una batalla a partir de referencias compactas (id de especie + configuración)
+        post("/api/pokemon-battle/start-by-id", (req, res) -> {
+            try {
+                StartByIdRequest data = gson.fromJson(req.body(), StartByIdRequest.class);
+                if (data == null || data.team1 == null || data.team2 == null) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "error", "Se requieren ambos equipos"
+                    ));
+                }
+
+                List<Pokemon> team1;
+                List<Pokemon> team2;
+                try {
+                    team1 = TeamBuilder.buildTeam(data.team1);
+                    team2 = TeamBuilder.buildTeam(data.team2);
+                } catch (IllegalArgumentException e) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "error", e.getMessage()
+                    ));
+                }
+
+                PokemonBattleEngine battle = new PokemonBattleEngine();
+                battle.initialize(team1, team2);
+                // Los primeros de cada equipo salen al campo directamente
+                battle.switchToSlot(true, 0);
+                battle.switchToSlot(false, 0);
+                String battleId = activeBattles.register(battle);
+                if (battleId == null) {
+                    res.status(503);
+                    return gson.toJson(Map.of(
+                        "error", "Se ha alcanzado el número máximo de batallas activas"
+                    ));
+                }
+
+                System.out.println("Batalla iniciada con ID: " + battleId);
+                return gson.toJson(Map.of(
+                    "status", "success",
+                    "battleId", battleId,
+                    "team1", summarizeTeam(team1),
+                    "team2", summarizeTeam(team2)
+                ));
+            } catch (Exception e) {
+                System.err.println("Error al iniciar la batalla: " + e.getMessage());
+                e.printStackTrace();
+                res.status(500);
+                return gson.toJson(Map.of(
+                    "error", "Error al iniciar la batalla: " + e.getMessage()
+                ));
+            }
+        });
+
         // Endpoint para realizar una acción en la batalla
         post("/api/pokemon-battle/:battleId/action", (req, res) -> {
-            try {
-                String battleId = req.params(":battleId");
-                PokemonBattleEngine battle = activeBattles.get(battleId);
+            try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(req.params(":battleId"))) {
+                PokemonBattleEngine battle = lease != null ? lease.getBattle() : null;
 
                 if (battle == null) {
                     res.status(404);
@@ -103,25 +159,18 @@ public class PokemonBattleServer {
                     ));
                 }
 
-                Map<String, Object> data = gson.fromJson(req.body(), new TypeToken<Map<String, Object>>(){}.getType());
-                Pokemon source = gson.fromJson(
-                    gson.toJson(data.get("source")),
-                    Pokemon.class
-                );
-                Pokemon target = gson.fromJson(
-                    gson.toJson(data.get("target")),
-                    Pokemon.class
-                );
-                PokemonMove action = gson.fromJson(
-                    gson.toJson(data.get("action")),
-                    com.rpgen.pokemon.entity.PokemonMove.class
-                );
+                ActionRequest data = gson.fromJson(req.body(), ActionRequest.class);
+                if (data == null) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "error", "Cuerpo de la petición vacío"
+                    ));
+                }
 
-                battle.addAction(source, target, action);
+                BattleChannel.Feed feed = BattleChannel.listen(req.params(":battleId"), battle);
+                battle.addAction(data.source, data.target, data.action);
                 res.type("application/json");
-                return gson.toJson(Map.of(
-                    "message", "Acción añadida correctamente"
-                ));
+                return gson.toJson(BattleChannel.commitResult(req.params(":battleId"), battle, feed, "Acción añadida correctamente"));
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
@@ -132,9 +181,8 @@ public class PokemonBattleServer {
 
         // Endpoint para cambiar de Pokémon
         post("/api/pokemon-battle/:battleId/switch", (req, res) -> {
-            try {
-                String battleId = req.params(":battleId");
-                PokemonBattleEngine battle = activeBattles.get(battleId);
+            try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(req.params(":battleId"))) {
+                PokemonBattleEngine battle = lease != null ? lease.getBattle() : null;
 
                 if (battle == null) {
                     res.status(404);
@@ -143,24 +191,94 @@ public class PokemonBattleServer {
                     ));
                 }
 
-                Map<String, Object> data = gson.fromJson(req.body(), new TypeToken<Map<String, Object>>(){}.getType());
-                Pokemon newPokemon = gson.fromJson(
-                    gson.toJson(data.get("newPokemon")),
-                    Pokemon.class
-                );
-                boolean isTeam1 = (boolean) data.get("isTeam1");
-                Pokemon result = battle.switchPokemon(newPokemon, isTeam1);
+                SwitchRequest data = gson.fromJson(req.body(), SwitchRequest.class);
+                if (data == null) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "error", "Cuerpo de la petición vacío"
+                    ));
+                }
+                BattleChannel.Feed feed = BattleChannel.listen(req.params(":battleId"), battle);
+                Pokemon result = battle.switchPokemon(data.newPokemon, data.isTeam1);
                 res.type("application/json");
                 if (result != null) {
+                    Map<String, Object> response = BattleChannel.commitResult(req.params(":battleId"), battle, feed, "Pokémon cambiado");
+                    response.put("newActivePokemon", result);
+                    return gson.toJson(response);
+                } else {
                     return gson.toJson(Map.of(
-                        "message", "Pokémon cambiado",
-                        "newActivePokemon", result
+                        "error", "No se pudo cambiar el Pokémon"
                     ));
-                } else {
+                }
+            } catch (Exception e) {
+                res.status(500);
+                return gson.toJson(Map.of(
+                    "error", "Error al cambiar Pokémon: " + e.getMessage()
+                ));
+            }
+        });
+
+        // Endpoint para elegir movimiento por su posición en el moveset del Pokémon activo
+        post("/api/pokemon-battle/:battleId/move", (req, res) -> {
+            try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(req.params(":battleId"))) {
+                PokemonBattleEngine battle = lease != null ? lease.getBattle() : null;
+
+                if (battle == null) {
+                    res.status(404);
+                    return gson.toJson(Map.of(
+                        "error", "Batalla no encontrada"
+                    ));
+                }
+
+                MoveRequest data = gson.fromJson(req.body(), MoveRequest.class);
+                if (data == null || data.moveIndex < 0 || data.moveIndex >= battle.getMovesetSize(data.isTeam1)) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "error", "Movimiento no válido"
+                    ));
+                }
+                if (!battle.getActivePokemon(data.isTeam1).isAlive()) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "error", "El Pokémon activo está debilitado: primero hay que sacar a otro"
+                    ));
+                }
+
+                BattleChannel.Feed feed = BattleChannel.listen(req.params(":battleId"), battle);
+                battle.selectMoveSlot(data.isTeam1, data.moveIndex);
+                return gson.toJson(BattleChannel.commitResult(req.params(":battleId"), battle, feed, "Acción añadida correctamente"));
+            } catch (Exception e) {
+                res.status(500);
+                return gson.toJson(Map.of(
+                    "error", "Error al procesar la acción: " + e.getMessage()
+                ));
+            }
+        });
+
+        // Endpoint para cambiar al Pokémon de una posición del equipo
+        post("/api/pokemon-battle/:battleId/switch-slot", (req, res) -> {
+            try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(req.params(":battleId"))) {
+                PokemonBattleEngine battle = lease != null ? lease.getBattle() : null;
+
+                if (battle == null) {
+                    res.status(404);
+                    return gson.toJson(Map.of(
+                        "error", "Batalla no encontrada"
+                    ));
+                }
+
+                SwitchSlotRequest data = gson.fromJson(req.body(), SwitchSlotRequest.class);
+                BattleChannel.Feed feed = BattleChannel.listen(req.params(":battleId"), battle);
+                Pokemon result = data != null ? battle.switchToSlot(data.isTeam1, data.slot) : null;
+                if (result == null) {
+                    res.status(400);
                     return gson.toJson(Map.of(
                         "error", "No se pudo cambiar el Pokémon"
                     ));
                 }
+                Map<String, Object> response = BattleChannel.commitResult(req.params(":battleId"), battle, feed, "Pokémon cambiado");
+                response.put("slot", data.slot);
+                return gson.toJson(response);
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
@@ -169,11 +287,11 @@ public class PokemonBattleServer {
             }
         });
 
-        // Endpoint para procesar un turno
+        // Endpoint para procesar un turno. El turno ya se resuelve solo con la segunda elección; esta ruta
+        // queda por compatibilidad y no hace nada si falta la de algún bando
         post("/api/pokemon-battle/:battleId/process-turn", (req, res) -> {
-            try {
-                String battleId = req.params(":battleId");
-                PokemonBattleEngine battle = activeBattles.get(battleId);
+            try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(req.params(":battleId"))) {
+                PokemonBattleEngine battle = lease != null ? lease.getBattle() : null;
 
                 if (battle == null) {
                     res.status(404);
@@ -182,19 +300,73 @@ public class PokemonBattleServer {
                     ));
                 }
 
+                // Los clientes conectados por WebSocket reciben también lo que resuelvan las rutas HTTP
+                BattleChannel.Feed feed = BattleChannel.listen(req.params(":battleId"), battle);
                 battle.processTurn();
                 res.type("application/json");
+                return gson.toJson(BattleChannel.commitResult(req.params(":battleId"), battle, feed, "Turno procesado"));
+            } catch (Exception e) {
+                res.status(500);
                 return gson.toJson(Map.of(
-                    "message", "Turno procesado"
+                    "error", "Error al procesar el turno: " + e.getMessage()
                 ));
+            }
+        });
+
+        // Endpoint para que la IA elija y registre la acción de uno de los bandos
+        post("/api/pokemon-battle/:battleId/ai-move", (req, res) -> {
+            try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(req.params(":battleId"))) {
+                PokemonBattleEngine battle = lease != null ? lease.getBattle() : null;
+
+                if (battle == null) {
+                    res.status(404);
+                    return gson.toJson(Map.of(
+                        "error", "Batalla no encontrada"
+                    ));
+                }
+
+                AiMoveRequest data = gson.fromJson(req.body(), AiMoveRequest.class);
+                boolean isTeam1 = data != null && data.isTeam1;
+                long budgetMillis = data != null && data.budgetMillis != null
+                    ? Math.min(data.budgetMillis, 1000)
+                    : battleAI.getTimeBudgetMillis();
+
+                BattleChannel.Feed feed = BattleChannel.listen(req.params(":battleId"), battle);
+                PokemonBattleAI.Decision decision = battleAI.play(battle, isTeam1, budgetMillis);
+
+                if (decision == null) {
+                    res.status(409);
+                    return gson.toJson(Map.of(
+                        "error", "No hay ninguna acción disponible para la IA"
+                    ));
+                }
+                Map<String, Object> response = BattleChannel.commitResult(req.params(":battleId"), battle, feed, "Acción de la IA registrada");
+                response.put("decision", decision.toMap());
+                return gson.toJson(response);
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
-                    "error", "Error al procesar el turno: " + e.getMessage()
+                    "error", "Error al calcular la acción de la IA: " + e.getMessage()
+                ));
+            }
+        });
+
+        // Endpoint para dar por terminada una batalla y liberar sus recursos
+        delete("/api/pokemon-battle/:battleId", (req, res) -> {
+            if (!activeBattles.remove(req.params(":battleId"))) {
+                res.status(404);
+                return gson.toJson(Map.of(
+                    "error", "Batalla no encontrada"
                 ));
             }
+            return gson.toJson(Map.of(
+                "message", "Batalla eliminada"
+            ));
         });
 
+        // Métricas del registro de batallas
+        get("/api/pokemon-battle/metrics", (req, res) -> gson.toJson(activeBattles.getMetrics()));
+
         post("/api/pokemon-battle/type-effectiveness", (req, res) -> {
             try {
                 // Parsear el JSON de la solicitud
@@ -216,9 +388,7 @@ public class PokemonBattleServer {
                     ));
                 }
 
-                // Crear una instancia de PokemonBattleEngine para calcular la efectividad
-                PokemonBattleEngine battle = new PokemonBattleEngine();
-                double effectiveness = battle.calculateTypeEffectiveness(attackType, defenderTypes);
+                double effectiveness = TypeEffectiveness.getEffectiveness(attackType, defenderTypes);
 
                 // Devolver la efectividad como JSON
                 JsonObject response = new JsonObject();
@@ -234,4 +404,62 @@ public class PokemonBattleServer {
             }
         });
     }
+
+    // Resumen mínimo para que el cliente pueda referirse a posiciones y movimientos por índice
+    private static List<Map<String, Object>> summarizeTeam(List<Pokemon> team) {
+        List<Map<String, Object>> summary = new ArrayList<>(team.size());
+        for (Pokemon pokemon : team) {
+            List<String> moves = new ArrayList<>();
+            for (int slot = 0; slot < pokemon.getMovesetSize(); slot++) {
+                PokemonMove move = pokemon.getMovesetMove(slot);
+                moves.add(move != null ? move.getName() : null);
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", pokemon.getId());
+            entry.put("name", pokemon.getName());
+            entry.put("health", pokemon.getHealth());
+            entry.put("maxHealth", pokemon.getMaxHealth());
+            entry.put("moves", moves);
+            summary.add(entry);
+        }
+        return summary;
+    }
+
+    // Cuerpos de las peticiones, decodificados en una sola pasada con BattleJson. StartRequest es visible en el
+    // paquete para que las pruebas decodifiquen exactamente lo mismo que /start
+    static class StartRequest {
+        List<Pokemon> team1;
+        List<Pokemon> team2;
+    }
+
+    private static class ActionRequest {
+        private Pokemon source;
+        private Pokemon target;
+        private PokemonMove action;
+    }
+
+    private static class SwitchRequest {
+        private Pokemon newPokemon;
+        private boolean isTeam1;
+    }
+
+    private static class StartByIdRequest {
+        private List<TeamBuilder.PokemonBuild> team1;
+        private List<TeamBuilder.PokemonBuild> team2;
+    }
+
+    private static class MoveRequest {
+        private boolean isTeam1;
+        private int moveIndex = -1;
+    }
+
+    private static class SwitchSlotRequest {
+        private boolean isTeam1;
+        private int slot = -1;
+    }
+
+    private static class AiMoveRequest {
+        private boolean isTeam1;
+        private Long budgetMillis;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,179 @@
+package com.rpgen.pokemon.web;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.rpgen.pokemon.battle.PokemonBattleEngine;
+import com.rpgen.pokemon.battle.PokemonBattleRegistry;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketError;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Canal de combate por WebSocket: una conexión sustituye a las rutas /action, /switch y /process-turn.
+// Mensajes del cliente (JSON):
+//   {"type":"join","battleId":"...","team":1}   se une como equipo 1 o 2 (0 para solo mirar), si está libre, y recibe el estado
+//   {"type":"move","slot":0}                    elige movimiento del Pokémon activo
+//   {"type":"switch","slot":2}                  cambia al Pokémon de esa posición
+//   {"type":"turn"}                             resuelve el turno (ya no hace falta: la segunda elección lo resuelve)
+// El servidor responde {"type":"ack"} o {"type":"error"} a quien envía y manda {"type":"turn","events":[...]}
+// a todos los conectados al combate cuando algo cambia, o {"type":"closed"} si el combate se borra o expulsa.
+// Se registra en Main antes que cualquier ruta HTTP
+@WebSocket
+public class PokemonBattleSocket {
+    private static final Gson gson = new Gson();
+    private static final ConcurrentHashMap<Session, Seat> seats = new ConcurrentHashMap<>();
+
+    private final PokemonBattleRegistry activeBattles = PokemonBattleRegistry.getInstance();
+
+    @OnWebSocketMessage
+    public void onMessage(Session session, String message) {
+        Command command;
+        try {
+            command = gson.fromJson(message, Command.class);
+        } catch (JsonSyntaxException e) {
+            command = null;
+        }
+        if (command == null || command.type == null) {
+            BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Mensaje no válido"));
+            return;
+        }
+
+        try {
+            if (command.type.equals("join")) {
+                join(session, command);
+            } else {
+                play(session, command);
+            }
+        } catch (Exception e) {
+            System.err.println("Error en el canal de combate: " + e.getMessage());
+            BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Error al procesar la orden: " + e.getMessage()));
+        }
+    }
+
+    @OnWebSocketClose
+    public void onClose(Session session, int statusCode, String reason) {
+        leave(session);
+    }
+
+    @OnWebSocketError
+    public void onError(Session session, Throwable error) {
+        leave(session);
+    }
+
+    private void join(Session session, Command command) {
+        int team = command.team != null ? command.team : 0;
+        if (team < 0 || team > 2) {
+            BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Equipo no válido"));
+            return;
+        }
+        // Todo con el cerrojo tomado: así ninguna orden se cuela entre la foto y la suscripción, el combate no
+        // puede borrarse a medias y dos sesiones no se quedan a la vez con el mismo equipo
+        try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(command.battleId)) {
+            if (lease == null) {
+                BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Batalla no encontrada"));
+                return;
+            }
+            if (team != 0 && isTaken(command.battleId, team, session)) {
+                BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Ese equipo ya está ocupado"));
+                return;
+            }
+            leave(session);
+            seats.put(session, new Seat(command.battleId, team));
+            BattleChannel.subscribe(command.battleId, session);
+            BattleChannel.send(session, BattleChannel.stateFrame(command.battleId, lease.getBattle(), team));
+        }
+    }
+
+    // true si otra sesión ya juega con ese equipo en ese combate
+    private static boolean isTaken(String battleId, int team, Session session) {
+        for (Map.Entry<Session, Seat> entry : seats.entrySet()) {
+            Seat seat = entry.getValue();
+            if (entry.getKey() != session && seat.team == team && seat.battleId.equals(battleId)) return true;
+        }
+        return false;
+    }
+
+    private void play(Session session, Command command) {
+        Seat seat = seats.get(session);
+        if (seat == null) {
+            BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Primero hay que unirse a una batalla"));
+            return;
+        }
+        boolean needsTeam = command.type.equals("move") || command.type.equals("switch");
+        if (needsTeam && seat.team == 0) {
+            BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Los espectadores no pueden actuar"));
+            return;
+        }
+        boolean isTeam1 = seat.team == 1;
+
+        String error = null;
+        String events;
+        try (PokemonBattleRegistry.Lease lease = activeBattles.acquire(seat.battleId)) {
+            if (lease == null) {
+                BattleChannel.send(session, BattleChannel.messageFrame("error", "message", "Batalla no encontrada"));
+                return;
+            }
+            PokemonBattleEngine battle = lease.getBattle();
+            BattleChannel.Feed feed = BattleChannel.listen(seat.battleId, battle);
+            switch (command.type) {
+                case "move":
+                    if (command.slot == null || command.slot < 0 || command.slot >= battle.getMovesetSize(isTeam1)) {
+                        error = "Movimiento no válido";
+                    } else if (!battle.getActivePokemon(isTeam1).isAlive()) {
+                        error = "El Pokémon activo está debilitado: primero hay que sacar a otro";
+                    } else {
+                        battle.selectMoveSlot(isTeam1, command.slot);
+                    }
+                    break;
+                case "switch":
+                    if (command.slot == null || battle.switchToSlot(isTeam1, command.slot) == null) {
+                        error = "No se pudo cambiar el Pokémon";
+                    }
+                    break;
+                case "turn":
+                    battle.processTurn();
+                    break;
+                default:
+                    error = "Orden desconocida: " + command.type;
+            }
+            events = BattleChannel.turnFrame(battle.getTurnNumber(), feed.take());
+        }
+
+        // Los envíos se hacen ya sin el cerrojo del combate
+        if (error != null) {
+            BattleChannel.send(session, BattleChannel.messageFrame("error", "message", error));
+        } else {
+            BattleChannel.send(session, BattleChannel.messageFrame("ack", "command", command.type));
+        }
+        BattleChannel.publish(seat.battleId, events);
+    }
+
+    private static void leave(Session session) {
+        Seat seat = seats.remove(session);
+        if (seat != null) {
+            BattleChannel.unsubscribe(seat.battleId, session);
+        }
+    }
+
+    private static final class Seat {
+        final String battleId;
+        // 1 o 2 según el equipo; 0 si solo mira
+        final int team;
+
+        Seat(String battleId, int team) {
+            this.battleId = battleId;
+            this.team = team;
+        }
+    }
+
+    private static class Command {
+        private String type;
+        private String battleId;
+        private Integer team;
+        private Integer slot;
+    }
+}
@@ -16,6 +16,8 @@ import java.util.*;
 
 public class PokemonConfigServer {
     private final Gson gson = new Gson();
+    // Naturalezas, objetos y habilidades por especie: ETag y cuerpos gzip ya preparados
+    private final HttpCache httpCache = new HttpCache(4096);
 
     public void init() {
         // Configurar CORS
@@ -27,26 +29,30 @@ public class PokemonConfigServer {
 
         // Obtener todas las naturalezas
         Spark.get("/api/pokemon/natures", (request, response) -> {
-            response.type("application/json");
-            return gson.toJson(NatureDatabase.getAllNaturesAsMap());
+            // Las naturalezas son fijas: una sola versión
+            return httpCache.send(request, response, "natures", 0,
+                () -> HttpCache.utf8(gson.toJson(NatureDatabase.getAllNaturesAsMap())));
         });
 
         // Obtener todos los objetos
         Spark.get("/api/pokemon/items", (request, response) -> {
-            response.type("application/json");
-            return gson.toJson(ItemDatabase.getAllItemsAsMap());
+            return httpCache.send(request, response, "items", ItemDatabase.getVersion(),
+                () -> HttpCache.utf8(gson.toJson(ItemDatabase.getAllItemsAsMap())));
         });
 
         // Obtener habilidades de un Pokémon específico
         Spark.get("/api/pokemon/:id/abilities", (request, response) -> {
             response.type("application/json");
             String pokemonId = request.params(":id");
+            long version = PokemonDatabase.getDatasetVersion();
             Pokemon pokemon = PokemonDatabase.getPokemon(pokemonId);
             if (pokemon != null) {
-                List<Map<String, Object>> abilities = pokemon.getAbilities().stream()
-                    .map(Ability::toMap)
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-                return gson.toJson(abilities);
+                return httpCache.send(request, response, "abilities:" + pokemon.getId(), version, () -> {
+                    List<Map<String, Object>> abilities = pokemon.getAbilities().stream()
+                        .map(Ability::toMap)
+                        .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+                    return HttpCache.utf8(gson.toJson(abilities));
+                });
             }
             return gson.toJson(new ArrayList<>());
         });
@@ -197,6 +203,9 @@ public class PokemonConfigServer {
                 e.printStackTrace();
                 response.status(500);
                 return gson.toJson(Map.of("error", "Error al configurar el Pokémon: " + e.getMessage()));
+            } finally {
+                // La especie configurada es la publicada: los listados ya serializados dejan de valer
+                PokemonDatabase.markModified();
             }
         });
 
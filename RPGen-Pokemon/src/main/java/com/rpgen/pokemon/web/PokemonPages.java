@@ -0,0 +1,183 @@
+package com.rpgen.pokemon.web;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.rpgen.pokemon.data.PokemonDatabase;
+import com.rpgen.pokemon.data.PokemonStore;
+import com.rpgen.pokemon.entity.Pokemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+// Listado de especies ya serializado. Cada especie se codifica una vez por versión del conjunto y vista, y
+// las páginas (y la lista completa) se guardan como bytes listos para enviar. Al publicarse un lote nuevo
+// o configurarse una especie, y al terminar la carga, cambia la versión y todo se reconstruye bajo demanda
+final class PokemonPages {
+    static final String VIEW_FULL = "full";
+    static final String VIEW_SUMMARY = "summary";
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+    private static final int MAX_CACHED_PAGES = 512;
+    private static final byte[] EMPTY_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final Gson gson;
+    private volatile Pages pages;
+
+    PokemonPages(Gson gson) {
+        this.gson = gson;
+    }
+
+    // Todas las especies con todos sus campos, igual que antes pero sin volver a codificarlas
+    byte[] all() {
+        Pages current = current();
+        return current.cached(VIEW_FULL + ":all", () -> current.encode(VIEW_FULL, 0, current.pokemon.size()));
+    }
+
+    // {"pokemon":[...],"nextCursor":"25","total":n,"loading":bool,"version":v}. El cursor es el id de la
+    // última especie devuelta, así que sigue siendo válido aunque entren especies nuevas entre páginas
+    byte[] page(String cursor, int limit, String view) {
+        Pages current = current();
+        String key = view + ":" + cursor + ":" + limit;
+        return current.cached(key, () -> {
+            List<Pokemon> pokemon = current.pokemon;
+            int from = cursor == null ? 0 : indexAfter(pokemon, cursor);
+            int to = Math.min(pokemon.size(), from + limit);
+            String nextCursor = to < pokemon.size() ? pokemon.get(to - 1).getId() : null;
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64 + (to - from) * (VIEW_FULL.equals(view) ? 4096 : 256));
+            write(out, "{\"pokemon\":");
+            out.writeBytes(current.encode(view, from, to));
+            write(out, ",\"nextCursor\":" + (nextCursor != null ? gson.toJson(nextCursor) : "null")
+                + ",\"total\":" + pokemon.size()
+                + ",\"loading\":" + current.loading
+                + ",\"version\":" + current.version + "}");
+            return out.toByteArray();
+        });
+    }
+
+    // Versión para HttpCache: cambia con el conjunto y también cuando termina (o se reanuda) la carga, porque
+    // las páginas guardadas llevan "loading" dentro
+    long version() {
+        Pages current = current();
+        return current.version << 1 | (current.loading ? 1 : 0);
+    }
+
+    private Pages current() {
+        long version = PokemonDatabase.getDatasetVersion();
+        boolean loading = PokemonDatabase.hasMorePokemon();
+        Pages current = pages;
+        if (current == null || current.version != version || current.loading != loading) {
+            current = new Pages(version, loading, PokemonDatabase.getAllPokemon());
+            pages = current;
+        }
+        return current;
+    }
+
+    // Primera posición cuyo id va después del cursor, con el mismo orden que el almacén
+    private static int indexAfter(List<Pokemon> pokemon, String cursor) {
+        int low = 0;
+        int high = pokemon.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (PokemonStore.compareIds(pokemon.get(mid).getId(), cursor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private final class Pages {
+        final long version;
+        final boolean loading;
+        final List<Pokemon> pokemon;
+        final AtomicReferenceArray<byte[]> full;
+        final AtomicReferenceArray<byte[]> summary;
+        final ConcurrentHashMap<String, byte[]> rendered = new ConcurrentHashMap<>();
+
+        Pages(long version, boolean loading, List<Pokemon> pokemon) {
+            this.version = version;
+            this.loading = loading;
+            this.pokemon = pokemon;
+            this.full = new AtomicReferenceArray<>(pokemon.size());
+            this.summary = new AtomicReferenceArray<>(pokemon.size());
+        }
+
+        byte[] cached(String key, Supplier<byte[]> render) {
+            byte[] body = rendered.get(key);
+            if (body != null) return body;
+            body = render.get();
+            // Con muchas combinaciones distintas de cursor y límite se deja de guardar, no de responder
+            if (rendered.size() < MAX_CACHED_PAGES) rendered.putIfAbsent(key, body);
+            return body;
+        }
+
+        // Array JSON con las especies [from, to)
+        byte[] encode(String view, int from, int to) {
+            if (from >= to) return EMPTY_ARRAY;
+            boolean isSummary = VIEW_SUMMARY.equals(view);
+            AtomicReferenceArray<byte[]> fragments = isSummary ? summary : full;
+            byte[][] parts = new byte[to - from][];
+            int length = 2 + (to - from - 1);
+            for (int i = from; i < to; i++) {
+                byte[] fragment = fragments.get(i);
+                if (fragment == null) {
+                    fragment = isSummary ? summaryOf(pokemon.get(i)) : gson.toJson(pokemon.get(i)).getBytes(StandardCharsets.UTF_8);
+                    fragments.set(i, fragment);
+                }
+                parts[i - from] = fragment;
+                length += fragment.length;
+            }
+
+            byte[] body = new byte[length];
+            int position = 0;
+            body[position++] = '[';
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) body[position++] = ',';
+                System.arraycopy(parts[i], 0, body, position, parts[i].length);
+                position += parts[i].length;
+            }
+            body[position] = ']';
+            return body;
+        }
+    }
+
+    // Lo que necesita una tarjeta del listado: sin movimientos, habilidades ni configuración
+    private static byte[] summaryOf(Pokemon pokemon) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("id").value(pokemon.getId());
+            writer.name("name").value(pokemon.getName());
+            writer.name("types").beginArray();
+            for (String type : pokemon.getTypes()) {
+                writer.value(type);
+            }
+            writer.endArray();
+            writer.name("imageUrl").value(pokemon.getImageUrl());
+            writer.name("health").value(pokemon.getHealth());
+            writer.name("maxHealth").value(pokemon.getMaxHealth());
+            writer.name("attack").value(pokemon.getAttack());
+            writer.name("defense").value(pokemon.getDefense());
+            writer.name("specialAttack").value(pokemon.getSpecialAttack());
+            writer.name("specialDefense").value(pokemon.getSpecialDefense());
+            writer.name("speed").value(pokemon.getSpeed());
+            writer.endObject();
+        } catch (IOException e) {
+            // Se escribe en memoria; no puede fallar
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
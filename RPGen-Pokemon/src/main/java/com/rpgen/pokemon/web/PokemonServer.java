@@ -2,18 +2,26 @@ package com.rpgen.pokemon.web;
 
 import static spark.Spark.*;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.rpgen.pokemon.data.ItemDatabase;
+import com.rpgen.pokemon.data.PokeApiClient;
 import com.rpgen.pokemon.data.PokemonDatabase;
 import com.rpgen.pokemon.entity.Pokemon;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class PokemonServer {
     private final Gson gson;
+    private final PokemonPages pages;
+    // Listado y especies sueltas: ETag y cuerpos gzip ya preparados
+    private final HttpCache httpCache = new HttpCache(2048);
     private static boolean initialized = false;
 
     public PokemonServer() {
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        // Sin pretty printing: el listado completo ocupa varios megas y el formato solo añade bytes
+        this.gson = new Gson();
+        this.pages = new PokemonPages(gson);
     }
 
     public void init() {
@@ -44,10 +52,35 @@ public class PokemonServer {
         // Inicializar la base de datos de Pokémon
         PokemonDatabase.initialize();
 
-        // Obtener todos los Pokémon
+        // Obtener los Pokémon. Sin parámetros devuelve la lista completa como siempre; con cursor, limit
+        // (1-500, 50 por defecto) o view=summary devuelve una página con el cursor de la siguiente
         get("/api/pokemon", (req, res) -> {
             try {
-                return gson.toJson(PokemonDatabase.getAllPokemon());
+                String cursor = req.queryParams("cursor");
+                String limit = req.queryParams("limit");
+                String view = req.queryParams("view");
+                if (cursor == null && limit == null && view == null) {
+                    return httpCache.send(req, res, "all", pages.version(), pages::all);
+                }
+                if (view != null && !view.equals(PokemonPages.VIEW_FULL) && !view.equals(PokemonPages.VIEW_SUMMARY)) {
+                    res.status(400);
+                    return gson.toJson(Map.of(
+                        "status", "error",
+                        "message", "Vista no válida: usa full o summary"
+                    ));
+                }
+                int size = limit != null ? Integer.parseInt(limit) : PokemonPages.DEFAULT_LIMIT;
+                size = Math.max(1, Math.min(PokemonPages.MAX_LIMIT, size));
+                String pageView = view != null ? view : PokemonPages.VIEW_FULL;
+                int pageSize = size;
+                return httpCache.send(req, res, "page:" + pageView + ":" + cursor + ":" + pageSize, pages.version(),
+                    () -> pages.page(cursor, pageSize, pageView));
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return gson.toJson(Map.of(
+                    "status", "error",
+                    "message", "Parámetro limit no válido"
+                ));
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
@@ -61,10 +94,12 @@ public class PokemonServer {
         get("/api/pokemon/load-more", (req, res) -> {
             try {
                 PokemonDatabase.loadNextBatch();
-                Map<String, Object> response = new HashMap<>();
-                response.put("pokemon", PokemonDatabase.getAllPokemon());
-                response.put("hasMore", PokemonDatabase.hasMorePokemon());
-                return gson.toJson(response);
+                // La lista ya serializada se reutiliza tal cual dentro de la respuesta
+                ByteArrayOutputStream response = new ByteArrayOutputStream();
+                response.writeBytes("{\"pokemon\":".getBytes(StandardCharsets.UTF_8));
+                response.writeBytes(pages.all());
+                response.writeBytes((",\"hasMore\":" + PokemonDatabase.hasMorePokemon() + "}").getBytes(StandardCharsets.UTF_8));
+                return response.toByteArray();
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
@@ -74,14 +109,26 @@ public class PokemonServer {
             }
         });
 
-        // Buscar Pokémon por nombre o tipo
+        // Buscar Pokémon por nombre o tipo. Filtros opcionales: type, ability, prefix=true (solo prefijo
+        // del nombre) y limit; los resultados vienen ordenados por relevancia
         get("/api/pokemon/search", (req, res) -> {
             try {
                 String query = req.queryParams("q");
-                if (query == null || query.trim().isEmpty()) {
+                String type = req.queryParams("type");
+                String ability = req.queryParams("ability");
+                String limit = req.queryParams("limit");
+                boolean prefix = "true".equalsIgnoreCase(req.queryParams("prefix"));
+                if ((query == null || query.trim().isEmpty()) && type == null && ability == null && limit == null) {
                     return gson.toJson(PokemonDatabase.getAllPokemon());
                 }
-                return gson.toJson(PokemonDatabase.searchPokemon(query));
+                int max = limit != null ? Math.max(0, Integer.parseInt(limit)) : 0;
+                return gson.toJson(PokemonDatabase.searchPokemon(query, prefix, type, ability, max));
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return gson.toJson(Map.of(
+                    "status", "error",
+                    "message", "Parámetro limit no válido"
+                ));
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
@@ -91,12 +138,31 @@ public class PokemonServer {
             }
         });
 
-        // Obtener un Pokémon específico por ID
+        // Estado del cliente de PokeAPI: caché, limitadores, circuito y métricas por recurso
+        get("/api/pokemon/upstream-metrics", (req, res) -> {
+            Map<String, Object> metrics = PokeApiClient.getMetrics();
+            metrics.put("failedItems", ItemDatabase.getFailedItemCount());
+            return gson.toJson(metrics);
+        });
+
+        // Obtener un Pokémon específico por ID. Si aún no está cargado se descarga con prioridad;
+        // ?wait=ms (0-30000) fija cuánto se espera antes de responder 202
         get("/api/pokemon/:id", (req, res) -> {
             try {
                 String id = req.params(":id");
-                Pokemon pokemon = PokemonDatabase.getPokemon(id);
-                
+                String wait = req.queryParams("wait");
+                long version = PokemonDatabase.getDatasetVersion();
+                Pokemon pokemon = wait != null
+                    ? PokemonDatabase.getPokemon(id, Math.max(0, Math.min(30_000, Long.parseLong(wait))))
+                    : PokemonDatabase.getPokemon(id);
+
+                if (pokemon == null && PokemonDatabase.isPending(id)) {
+                    res.status(202);
+                    return gson.toJson(Map.of(
+                        "status", "loading",
+                        "message", "Pokémon en camino, vuelve a intentarlo en unos segundos"
+                    ));
+                }
                 if (pokemon == null) {
                     res.status(404);
                     return gson.toJson(Map.of(
@@ -105,7 +171,14 @@ public class PokemonServer {
                     ));
                 }
                 
-                return gson.toJson(pokemon);
+                return httpCache.send(req, res, "pokemon:" + pokemon.getId(), version,
+                    () -> HttpCache.utf8(gson.toJson(pokemon)));
+            } catch (NumberFormatException e) {
+                res.status(400);
+                return gson.toJson(Map.of(
+                    "status", "error",
+                    "message", "Parámetro wait no válido"
+                ));
             } catch (Exception e) {
                 res.status(500);
                 return gson.toJson(Map.of(
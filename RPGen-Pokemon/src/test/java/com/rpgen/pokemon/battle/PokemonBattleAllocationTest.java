@@ -0,0 +1,62 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.entity.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Una vez calentado, resolver un turno (selección de movimientos, daño y fin de combate) no reserva memoria
+class PokemonBattleAllocationTest {
+    private static final int WARMUP_TURNS = 50_000;
+    private static final int MEASURED_TURNS = 10_000;
+
+    @Test
+    void processTurnDoesNotAllocateAfterWarmup() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "La JVM no mide la memoria reservada por hilo");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Pokemon attacker = pokemon("1", "grass", "special");
+        Pokemon defender = pokemon("2", "fire", "physical");
+        PokemonBattleEngine engine = new PokemonBattleEngine(42L);
+        engine.initialize(List.of(attacker), List.of(defender));
+        engine.switchToSlot(true, 0);
+        engine.switchToSlot(false, 0);
+
+        playTurns(engine, attacker, defender, WARMUP_TURNS);
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        playTurns(engine, attacker, defender, MEASURED_TURNS);
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        assertEquals(WARMUP_TURNS + MEASURED_TURNS, engine.getTurnNumber());
+        assertEquals(0, after - before, "Bytes reservados en " + MEASURED_TURNS + " turnos");
+    }
+
+    // La segunda elección resuelve el turno; la vida se repone para que nadie se debilite
+    private static void playTurns(PokemonBattleEngine engine, Pokemon attacker, Pokemon defender, int turns) {
+        for (int i = 0; i < turns; i++) {
+            attacker.setHealth(attacker.getMaxHealth());
+            defender.setHealth(defender.getMaxHealth());
+            engine.selectMoveSlot(true, 0);
+            engine.selectMoveSlot(false, 0);
+        }
+    }
+
+    private static Pokemon pokemon(String id, String type, String category) {
+        Map<String, Object> move = Map.of(
+            "id", "test-move-" + id,
+            "name", "Movimiento " + id,
+            "type", type,
+            "category", category,
+            "power", 80,
+            "accuracy", 100
+        );
+        return new Pokemon(id, "pokemon-" + id, 1_000_000, 100, 100, List.of(type), 100, 100, 100, null, List.of(move));
+    }
+}
@@ -0,0 +1,119 @@
+package com.rpgen.pokemon.battle;
+
+import com.rpgen.pokemon.entity.HeldItem;
+import com.rpgen.pokemon.entity.Pokemon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Elecciones del turno: lo que elige un bando no se ve hasta que se resuelve, y un activo debilitado no
+// puede atacar hasta que su bando saque a otro
+class PokemonBattleEngineTest {
+    private final List<BattleEvent> events = new ArrayList<>();
+    private final PokemonBattleListener recorder = new PokemonBattleListener() {
+        @Override
+        public void onBattleEvent(BattleEvent event) {
+            events.add(event);
+        }
+    };
+
+    @Test
+    void faintedActiveCannotCommitAMove() {
+        Pokemon fainted = pokemon("1", 100);
+        Pokemon reserve = pokemon("2", 100);
+        PokemonBattleEngine engine = start(List.of(fainted, reserve), List.of(pokemon("3", 50)));
+        fainted.setHealth(0);
+
+        engine.selectMoveSlot(true, 0);
+        engine.selectMove(fainted, fainted.getMovesetMove(0));
+        assertFalse(engine.hasCommittedAction(true));
+
+        assertSame(reserve, engine.switchToSlot(true, 1));
+        assertFalse(engine.hasCommittedAction(true), "Sacar a un sustituto no es la acción del turno");
+        engine.selectMoveSlot(true, 0);
+        assertTrue(engine.hasCommittedAction(true));
+    }
+
+    @Test
+    void voluntarySwitchIsRevealedWhenTheTurnResolves() {
+        Pokemon lead = pokemon("1", 100);
+        Pokemon reserve = pokemon("2", 100);
+        Pokemon rival = pokemon("3", 50);
+        PokemonBattleEngine engine = start(List.of(lead, reserve), List.of(rival));
+
+        assertSame(reserve, engine.switchToSlot(true, 1));
+        assertTrue(engine.hasCommittedAction(true));
+        assertTrue(events.isEmpty(), "El cambio se anunció antes de resolver el turno: " + events);
+        assertSame(lead, engine.getActivePokemon(true));
+
+        engine.selectMoveSlot(false, 0);
+        assertEquals(1, engine.getTurnNumber());
+        assertSame(reserve, engine.getActivePokemon(true));
+        assertEquals(BattleEvent.Type.SWITCH, events.get(0).getType());
+        assertTrue(events.get(0).isTeam1());
+        assertEquals(1, events.get(0).getSlot());
+        assertEquals(BattleEvent.Type.MOVE_USED, events.get(1).getType());
+        assertSame(reserve, events.get(1).getTarget());
+    }
+
+    @Test
+    void choiceLockIsAppliedWhenTheMoveIsUsed() {
+        Pokemon holder = pokemon("1", 100);
+        holder.setHeldItem(new HeldItem("choice-band", "Cinta Elegida", "", "", Map.of(), "held-items",
+            Map.of("onlyOneMove", true)));
+        PokemonBattleEngine engine = start(List.of(holder), List.of(pokemon("2", 50)));
+
+        // Cambiar de idea antes de que se resuelva el turno no deja nada bloqueado
+        engine.selectMoveSlot(true, 0);
+        engine.selectMoveSlot(true, 1);
+        engine.selectMoveSlot(false, 0);
+        assertEquals("1-b", moveUsedBy(true));
+        assertTrue(eventsOf(BattleEvent.Type.ITEM_TRIGGERED).isEmpty());
+
+        events.clear();
+        engine.selectMoveSlot(true, 0);
+        assertTrue(events.isEmpty(), "El bloqueo se anunció al elegir: " + events);
+        engine.selectMoveSlot(false, 0);
+        List<BattleEvent> triggered = eventsOf(BattleEvent.Type.ITEM_TRIGGERED);
+        assertEquals(1, triggered.size());
+        assertEquals("choice-band", triggered.get(0).getItemId());
+        assertEquals("1-b", triggered.get(0).getMove().getId());
+        assertEquals("1-b", moveUsedBy(true));
+    }
+
+    private PokemonBattleEngine start(List<Pokemon> team1, List<Pokemon> team2) {
+        PokemonBattleEngine engine = new PokemonBattleEngine(7L);
+        engine.initialize(team1, team2);
+        engine.switchToSlot(true, 0);
+        engine.switchToSlot(false, 0);
+        engine.registerBattleListener(recorder);
+        return engine;
+    }
+
+    private String moveUsedBy(boolean isTeam1) {
+        for (BattleEvent event : eventsOf(BattleEvent.Type.MOVE_USED)) {
+            if (event.isTeam1() == isTeam1) return event.getMove().getId();
+        }
+        return null;
+    }
+
+    private List<BattleEvent> eventsOf(BattleEvent.Type type) {
+        List<BattleEvent> matching = new ArrayList<>();
+        for (BattleEvent event : events) {
+            if (event.getType() == type) matching.add(event);
+        }
+        return matching;
+    }
+
+    // Vida de sobra para que nadie se debilite por los ataques
+    private static Pokemon pokemon(String id, int speed) {
+        List<Map<String, Object>> moves = List.of(
+            Map.of("id", id + "-a", "name", "Ataque A " + id, "type", "normal", "category", "physical", "power", 40, "accuracy", 100),
+            Map.of("id", id + "-b", "name", "Ataque B " + id, "type", "normal", "category", "physical", "power", 60, "accuracy", 100));
+        return new Pokemon(id, "pokemon-" + id, 1_000_000, 100, 100, List.of("normal"), speed, 100, 100, null, moves);
+    }
+}
@@ -0,0 +1,160 @@
+package com.rpgen.pokemon.data;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PokeAPI de mentira para las pruebas: un HttpServer local en un puerto libre. Cada ruta devuelve en orden
+// las respuestas programadas con respond (la última se repite) y un 404 si no tiene ninguna. Cuenta las
+// peticiones por ruta y guarda las cabeceras de la última
+final class FakePokeApi implements AutoCloseable {
+    private static final String API_PATH = "/api/v2";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-pokeapi");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentHashMap<String, Deque<Reply>> replies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, String>> lastHeaders = new ConcurrentHashMap<>();
+
+    private FakePokeApi() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    static FakePokeApi start() {
+        try {
+            return new FakePokeApi();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Directorio de caché vacío para una clase de prueba
+    static Path tempCacheDir() {
+        try {
+            return Files.createTempDirectory("pokeapi-cache");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // URL en un puerto en el que no escucha nadie: cualquier petición falla por red
+    static String unreachableUrl(String path) {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://127.0.0.1:" + socket.getLocalPort() + API_PATH + path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Valor para rpgen.pokeapi.url
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + API_PATH;
+    }
+
+    String url(String path) {
+        return baseUrl() + path;
+    }
+
+    void respond(String path, Reply... sequence) {
+        replies.put(API_PATH + path, new ArrayDeque<>(Arrays.asList(sequence)));
+    }
+
+    int hits(String path) {
+        AtomicInteger count = hits.get(API_PATH + path);
+        return count != null ? count.get() : 0;
+    }
+
+    String lastHeader(String path, String name) {
+        Map<String, String> headers = lastHeaders.get(API_PATH + path);
+        return headers != null ? headers.get(name.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    static Reply ok(String body) {
+        return new Reply(200, body);
+    }
+
+    static Reply status(int status) {
+        return new Reply(status, "");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        Map<String, String> headers = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> headers.put(name.toLowerCase(Locale.ROOT), values.get(0)));
+        lastHeaders.put(path, headers);
+
+        Reply reply = next(path);
+        try {
+            if (reply.delayMillis > 0) Thread.sleep(reply.delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reply.headers.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        byte[] body = reply.body.getBytes(StandardCharsets.UTF_8);
+        boolean empty = body.length == 0 || reply.status == 304;
+        exchange.sendResponseHeaders(reply.status, empty ? -1 : body.length);
+        if (!empty) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private Reply next(String path) {
+        Deque<Reply> sequence = replies.get(path);
+        if (sequence == null) return status(404);
+        synchronized (sequence) {
+            return sequence.size() > 1 ? sequence.poll() : sequence.peek();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    static final class Reply {
+        final int status;
+        final String body;
+        final Map<String, String> headers = new LinkedHashMap<>();
+        long delayMillis;
+
+        private Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        Reply header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        Reply delay(long millis) {
+            delayMillis = millis;
+            return this;
+        }
+    }
+}
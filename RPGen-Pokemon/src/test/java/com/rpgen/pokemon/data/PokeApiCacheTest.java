@@ -0,0 +1,96 @@
+package com.rpgen.pokemon.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Caché en disco de PokeApiClient contra un PokeAPI local: entradas recientes sin red, revalidación con 304
+// y copia antigua cuando la red falla. La configuración se fija antes de cargar PokeApiClient
+class PokeApiCacheTest {
+    private static final FakePokeApi api = FakePokeApi.start();
+    private static final Path cacheDir = FakePokeApi.tempCacheDir();
+    // Más antigua que rpgen.cache.maxAgeHours (30 días por defecto)
+    private static final long STALE_AGE_MILLIS = TimeUnit.DAYS.toMillis(60);
+
+    static {
+        System.setProperty("rpgen.pokeapi.url", api.baseUrl());
+        System.setProperty("rpgen.cache.dir", cacheDir.toString());
+        System.setProperty("rpgen.pokeapi.maxRetries", "0");
+    }
+
+    @BeforeAll
+    static void checkConfiguration() {
+        assertEquals(api.baseUrl(), PokeApiClient.BASE_URL, "PokeApiClient ya estaba cargado en esta JVM");
+        assertEquals(cacheDir, PokeApiClient.getCache().getDirectory());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        api.close();
+    }
+
+    @Test
+    void freshEntryIsServedWithoutNetwork() throws Exception {
+        String url = PokeApiClient.BASE_URL + "/pokemon/1/";
+        PokeApiClient.getCache().write(url, bytes("{\"id\":1}"), "\"v1\"", null);
+
+        assertEquals("{\"id\":1}", PokeApiClient.get(url));
+        assertEquals(0, api.hits("/pokemon/1/"));
+    }
+
+    @Test
+    void staleEntryIsRevalidatedAndOnlyItsMetadataRefreshed() throws Exception {
+        String url = PokeApiClient.BASE_URL + "/pokemon/2/";
+        long staleAt = System.currentTimeMillis() - STALE_AGE_MILLIS;
+        PokeApiClient.getCache().write(url, bytes("{\"id\":2}"), "\"v2\"", "Wed, 21 Oct 2015 07:28:00 GMT", staleAt);
+        Path body = PokeApiClient.getCache().read(url).getBodyPath();
+        FileTime bodyTime = FileTime.fromMillis(staleAt);
+        Files.setLastModifiedTime(body, bodyTime);
+        api.respond("/pokemon/2/", FakePokeApi.status(304).header("ETag", "\"v2\""));
+
+        assertEquals("{\"id\":2}", PokeApiClient.get(url));
+
+        assertEquals(1, api.hits("/pokemon/2/"));
+        assertEquals("\"v2\"", api.lastHeader("/pokemon/2/", "If-None-Match"));
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", api.lastHeader("/pokemon/2/", "If-Modified-Since"));
+        PokeApiCache.Entry entry = PokeApiClient.getCache().read(url);
+        assertTrue(entry.getFetchedAt() > staleAt + STALE_AGE_MILLIS / 2, "La fecha de descarga no se renovó");
+        assertEquals("\"v2\"", entry.getEtag());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", entry.getLastModified());
+        assertEquals(body, entry.getBodyPath());
+        assertEquals(bodyTime, Files.getLastModifiedTime(body), "El cuerpo se reescribió");
+        assertEquals("{\"id\":2}", entry.readBody());
+    }
+
+    @Test
+    void changedResourceReplacesTheStaleBody() throws Exception {
+        String url = PokeApiClient.BASE_URL + "/pokemon/3/";
+        PokeApiClient.getCache().write(url, bytes("{\"id\":3}"), "\"v3\"", null, System.currentTimeMillis() - STALE_AGE_MILLIS);
+        api.respond("/pokemon/3/", FakePokeApi.ok("{\"id\":3,\"name\":\"venusaur\"}").header("ETag", "\"v3b\""));
+
+        assertEquals("{\"id\":3,\"name\":\"venusaur\"}", PokeApiClient.get(url));
+        PokeApiCache.Entry entry = PokeApiClient.getCache().read(url);
+        assertEquals("\"v3b\"", entry.getEtag());
+        assertEquals("{\"id\":3,\"name\":\"venusaur\"}", entry.readBody());
+    }
+
+    @Test
+    void staleEntryIsServedWhenTheNetworkFails() throws Exception {
+        String url = FakePokeApi.unreachableUrl("/pokemon/4/");
+        PokeApiClient.getCache().write(url, bytes("{\"id\":4}"), null, null, System.currentTimeMillis() - STALE_AGE_MILLIS);
+
+        assertEquals("{\"id\":4}", PokeApiClient.getAsync(url).get(10, TimeUnit.SECONDS));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rpgen.pokemon.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Circuit breaker de PokeApiClient: se abre tras varios fallos seguidos, rechaza sin tocar la red y, pasado
+// el tiempo de apertura, deja pasar una sola petición de prueba. Sin reintentos para contar fallos exactos
+class PokeApiCircuitBreakerTest {
+    private static final FakePokeApi api = FakePokeApi.start();
+    private static final Path cacheDir = FakePokeApi.tempCacheDir();
+    private static final long OPEN_MILLIS = 500;
+
+    static {
+        System.setProperty("rpgen.pokeapi.url", api.baseUrl());
+        System.setProperty("rpgen.cache.dir", cacheDir.toString());
+        System.setProperty("rpgen.pokeapi.maxRetries", "0");
+        System.setProperty("rpgen.pokeapi.breakerFailures", "3");
+        System.setProperty("rpgen.pokeapi.breakerOpenMs", String.valueOf(OPEN_MILLIS));
+    }
+
+    @BeforeAll
+    static void checkConfiguration() {
+        assertEquals(api.baseUrl(), PokeApiClient.BASE_URL, "PokeApiClient ya estaba cargado en esta JVM");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        api.close();
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndLetsOneProbeThrough() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            api.respond("/pokemon/" + i + "/", FakePokeApi.status(500));
+            PokeApiException error = assertThrows(PokeApiException.class, get("/pokemon/" + i + "/"));
+            assertEquals(500, error.getStatusCode());
+        }
+        assertEquals("open", PokeApiClient.getMetrics().get("circuit"));
+
+        // Abierto: falla al momento y sin llegar al servidor
+        api.respond("/pokemon/4/", FakePokeApi.ok("{\"id\":4}"));
+        CompletableFuture<String> rejected = PokeApiClient.getAsync(PokeApiClient.BASE_URL + "/pokemon/4/");
+        assertTrue(rejected.isCompletedExceptionally());
+        assertCircuitOpen(rejected);
+        assertEquals(0, api.hits("/pokemon/4/"));
+
+        Thread.sleep(OPEN_MILLIS + 100);
+
+        // Medio abierto: la prueba tarda en responder y cualquier otra petición mientras tanto se rechaza
+        api.respond("/pokemon/5/", FakePokeApi.ok("{\"id\":5}").delay(300));
+        CompletableFuture<String> probe = PokeApiClient.getAsync(PokeApiClient.BASE_URL + "/pokemon/5/");
+        CompletableFuture<String> concurrent = PokeApiClient.getAsync(PokeApiClient.BASE_URL + "/pokemon/4/");
+        assertEquals("half-open", PokeApiClient.getMetrics().get("circuit"));
+        assertCircuitOpen(concurrent);
+        assertEquals(0, api.hits("/pokemon/4/"));
+
+        assertEquals("{\"id\":5}", probe.get(10, TimeUnit.SECONDS));
+        assertEquals(1, api.hits("/pokemon/5/"));
+        assertEquals("closed", PokeApiClient.getMetrics().get("circuit"));
+
+        // Cerrado otra vez: las peticiones vuelven a salir
+        assertEquals("{\"id\":4}", PokeApiClient.get(PokeApiClient.BASE_URL + "/pokemon/4/"));
+        assertEquals(1, api.hits("/pokemon/4/"));
+    }
+
+    private static Executable get(String path) {
+        return () -> PokeApiClient.get(PokeApiClient.BASE_URL + path);
+    }
+
+    private static void assertCircuitOpen(CompletableFuture<String> result) {
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(PokeApiException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().startsWith("Circuito abierto"), error.getCause().getMessage());
+    }
+}
@@ -0,0 +1,73 @@
+package com.rpgen.pokemon.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Reintentos de PokeApiClient contra un PokeAPI local: 429 respetando Retry-After, 5xx con backoff y 404
+// como fallo definitivo. La configuración se fija antes de cargar PokeApiClient
+class PokeApiClientTest {
+    private static final FakePokeApi api = FakePokeApi.start();
+    private static final Path cacheDir = FakePokeApi.tempCacheDir();
+
+    static {
+        System.setProperty("rpgen.pokeapi.url", api.baseUrl());
+        System.setProperty("rpgen.cache.dir", cacheDir.toString());
+        System.setProperty("rpgen.pokeapi.maxRetries", "3");
+    }
+
+    @BeforeAll
+    static void checkConfiguration() {
+        assertEquals(api.baseUrl(), PokeApiClient.BASE_URL, "PokeApiClient ya estaba cargado en esta JVM");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        api.close();
+    }
+
+    @Test
+    void throttledRequestWaitsForRetryAfter() throws Exception {
+        api.respond("/pokemon/10/",
+            FakePokeApi.status(429).header("Retry-After", "1"),
+            FakePokeApi.ok("{\"id\":10}"));
+
+        long start = System.nanoTime();
+        assertEquals("{\"id\":10}", PokeApiClient.get(PokeApiClient.BASE_URL + "/pokemon/10/"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(2, api.hits("/pokemon/10/"));
+        assertTrue(elapsedMillis >= 1000, "Reintentó a los " + elapsedMillis + " ms, antes de Retry-After");
+    }
+
+    @Test
+    void serverErrorsAreRetriedUntilSuccess() throws Exception {
+        api.respond("/pokemon/11/",
+            FakePokeApi.status(503),
+            FakePokeApi.status(500),
+            FakePokeApi.ok("{\"id\":11}"));
+
+        assertEquals("{\"id\":11}", PokeApiClient.get(PokeApiClient.BASE_URL + "/pokemon/11/"));
+        assertEquals(3, api.hits("/pokemon/11/"));
+    }
+
+    @Test
+    void notFoundFailsWithoutRetrying() throws Exception {
+        api.respond("/pokemon/12/", FakePokeApi.status(404));
+
+        PokeApiException error = assertThrows(PokeApiException.class,
+            () -> PokeApiClient.get(PokeApiClient.BASE_URL + "/pokemon/12/"));
+
+        assertEquals(404, error.getStatusCode());
+        assertFalse(error.isRetryable());
+        assertTrue(PokeApiException.isPermanent(error));
+        // Un reintento llegaría pasado el primer backoff (entre 125 y 250 ms)
+        Thread.sleep(600);
+        assertEquals(1, api.hits("/pokemon/12/"));
+    }
+}
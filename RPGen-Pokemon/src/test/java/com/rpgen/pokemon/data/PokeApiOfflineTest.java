@@ -0,0 +1,61 @@
+package com.rpgen.pokemon.data;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Con rpgen.offline PokeApiClient no toca la red: sirve la caché aunque esté vieja y, si no hay entrada,
+// falla al momento
+class PokeApiOfflineTest {
+    private static final FakePokeApi api = FakePokeApi.start();
+    private static final Path cacheDir = FakePokeApi.tempCacheDir();
+
+    static {
+        System.setProperty("rpgen.pokeapi.url", api.baseUrl());
+        System.setProperty("rpgen.cache.dir", cacheDir.toString());
+        System.setProperty("rpgen.offline", "true");
+    }
+
+    @BeforeAll
+    static void checkConfiguration() {
+        assertEquals(api.baseUrl(), PokeApiClient.BASE_URL, "PokeApiClient ya estaba cargado en esta JVM");
+        assertTrue(PokeApiClient.isOffline());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        api.close();
+    }
+
+    @Test
+    void missingEntryFailsFast() {
+        api.respond("/pokemon/25/", FakePokeApi.ok("{\"id\":25}"));
+
+        CompletableFuture<String> result = PokeApiClient.getAsync(PokeApiClient.BASE_URL + "/pokemon/25/");
+
+        assertTrue(result.isCompletedExceptionally(), "Debe fallar sin esperar a nada");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, error.getCause());
+        assertEquals(0, api.hits("/pokemon/25/"));
+    }
+
+    @Test
+    void staleEntryIsServedWithoutRevalidation() throws Exception {
+        String url = PokeApiClient.BASE_URL + "/pokemon/26/";
+        PokeApiClient.getCache().write(url, "{\"id\":26}".getBytes(StandardCharsets.UTF_8), "\"v26\"", null,
+            System.currentTimeMillis() - TimeUnit.DAYS.toMillis(365));
+        api.respond("/pokemon/26/", FakePokeApi.status(304));
+
+        assertEquals("{\"id\":26}", PokeApiClient.get(url));
+        assertEquals(0, api.hits("/pokemon/26/"));
+    }
+}
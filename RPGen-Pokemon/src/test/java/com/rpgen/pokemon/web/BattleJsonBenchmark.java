@@ -0,0 +1,69 @@
+package com.rpgen.pokemon.web;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.rpgen.pokemon.entity.Pokemon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Banco de pruebas manual (no lo ejecuta Maven): compara la decodificación de un cuerpo de /start 6 contra 6
+// con el camino antiguo (Map, volver a serializar cada equipo y parsearlo otra vez) y con el DTO tipado de
+// BattleJson, que decodifica el mismo StartRequest que /start. Se ejecuta con su main desde el classpath de
+// pruebas; la corrección de la decodificación la comprueba BattleJsonTest
+public final class BattleJsonBenchmark {
+    private static final int WARMUP = 5_000;
+    private static final int MEASURED = 5_000;
+
+    private BattleJsonBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Gson gson = BattleJson.gson();
+        String body = gson.toJson(Map.of("team1", team("a"), "team2", team("b")));
+        System.out.println("Cuerpo de " + body.length() + " caracteres");
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("Map + reserialización: %.1f us/decodificación%n", measure(() -> decodeThroughMap(gson, body)));
+            System.out.printf("DTO tipado:            %.1f us/decodificación%n", measure(() -> decodeTyped(gson, body)));
+        }
+    }
+
+    private static Object decodeThroughMap(Gson gson, String body) {
+        Map<String, Object> data = gson.fromJson(body, new TypeToken<Map<String, Object>>(){}.getType());
+        List<Pokemon> team1 = gson.fromJson(gson.toJson(data.get("team1")), new TypeToken<List<Pokemon>>(){}.getType());
+        List<Pokemon> team2 = gson.fromJson(gson.toJson(data.get("team2")), new TypeToken<List<Pokemon>>(){}.getType());
+        return team1.size() + team2.size();
+    }
+
+    private static Object decodeTyped(Gson gson, String body) {
+        PokemonBattleServer.StartRequest data = gson.fromJson(body, PokemonBattleServer.StartRequest.class);
+        return data.team1.size() + data.team2.size();
+    }
+
+    private static double measure(java.util.function.Supplier<Object> decode) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) sink += decode.get().hashCode();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) sink += decode.get().hashCode();
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) System.out.print("");
+        return elapsed / 1000.0 / MEASURED;
+    }
+
+    private static List<Pokemon> team(String prefix) {
+        List<Pokemon> team = new ArrayList<>(6);
+        for (int i = 0; i < 6; i++) {
+            List<Map<String, Object>> moves = new ArrayList<>(4);
+            for (int m = 0; m < 4; m++) {
+                moves.add(Map.of("id", prefix + "-move-" + i + "-" + m, "name", "Movimiento " + m, "type", "water",
+                    "category", m % 2 == 0 ? "physical" : "special", "power", 60 + m * 10, "accuracy", 100,
+                    "description", "Movimiento de prueba"));
+            }
+            team.add(new Pokemon(prefix + i, "pokemon-" + prefix + i, 200, 100, 90, List.of("water", "flying"),
+                80, 110, 95, "https://example.invalid/" + prefix + i + ".png", moves));
+        }
+        return team;
+    }
+}
@@ -0,0 +1,94 @@
+package com.rpgen.pokemon.web;
+
+import com.google.gson.Gson;
+import com.rpgen.pokemon.entity.DamageMove;
+import com.rpgen.pokemon.entity.Pokemon;
+import com.rpgen.pokemon.entity.PokemonMove;
+import com.rpgen.pokemon.entity.StatusMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Decodificación de los cuerpos de combate con BattleJson: el tipo de movimiento sale de statusEffect y los
+// equipos de /start llegan con sus movimientos
+class BattleJsonTest {
+    private final Gson gson = BattleJson.gson();
+
+    @Test
+    void moveWithStatusEffectIsStatusMove() {
+        PokemonMove move = gson.fromJson("{\"id\":\"79\",\"name\":\"Somnífero\",\"type\":\"grass\","
+            + "\"category\":\"status\",\"power\":0,\"accuracy\":75,\"statusEffect\":\"sleep\"}", PokemonMove.class);
+
+        assertInstanceOf(StatusMove.class, move);
+        assertEquals("79", move.getId());
+        assertEquals(75, move.getAccuracy());
+        assertEquals("sleep", move.getProperties().get("statusEffect"));
+    }
+
+    @Test
+    void statusEffectInsidePropertiesIsStatusMove() {
+        PokemonMove move = gson.fromJson("{\"id\":\"86\",\"name\":\"Onda Trueno\",\"type\":\"electric\","
+            + "\"properties\":{\"priority\":0,\"statusEffect\":\"paralysis\"}}", PokemonMove.class);
+
+        assertInstanceOf(StatusMove.class, move);
+        assertEquals("paralysis", move.getProperties().get("statusEffect"));
+    }
+
+    @Test
+    void moveWithoutStatusEffectIsDamageMove() {
+        PokemonMove move = gson.fromJson("{\"id\":\"33\",\"name\":\"Placaje\",\"type\":\"normal\","
+            + "\"category\":\"physical\",\"power\":40,\"accuracy\":100}", PokemonMove.class);
+
+        assertInstanceOf(DamageMove.class, move);
+        assertEquals("Placaje", move.getName());
+        assertEquals(40, move.getPower());
+    }
+
+    @Test
+    void startBodyWithAvailableActionsDeserializes() {
+        String body = "{\"team1\":[{\"id\":\"1\",\"name\":\"bulbasaur\",\"types\":[\"grass\",\"poison\"],"
+            + "\"health\":45,\"maxHealth\":45,\"availableActions\":["
+            + "{\"id\":\"33\",\"name\":\"Placaje\",\"type\":\"normal\",\"category\":\"physical\",\"power\":40,\"accuracy\":100},"
+            + "{\"id\":\"79\",\"name\":\"Somnífero\",\"type\":\"grass\",\"category\":\"status\",\"power\":0,"
+            + "\"accuracy\":75,\"statusEffect\":\"sleep\"}]}],"
+            + "\"team2\":[{\"id\":\"4\",\"name\":\"charmander\",\"types\":[\"fire\"],\"availableActions\":[]}]}";
+
+        PokemonBattleServer.StartRequest request = gson.fromJson(body, PokemonBattleServer.StartRequest.class);
+
+        assertEquals(1, request.team1.size());
+        assertEquals(1, request.team2.size());
+        Pokemon bulbasaur = request.team1.get(0);
+        assertEquals("bulbasaur", bulbasaur.getName());
+        assertEquals(2, bulbasaur.getMovesetSize());
+        assertInstanceOf(DamageMove.class, bulbasaur.getMovesetMove(0));
+        assertInstanceOf(StatusMove.class, bulbasaur.getMovesetMove(1));
+        assertEquals(0, request.team2.get(0).getMovesetSize());
+    }
+
+    @Test
+    void encodedTeamDecodesToTheSameMoves() {
+        Pokemon original = new Pokemon("7", "squirtle", 44, 48, 65, List.of("water"), 50, 64, 43, null, List.of(
+            Map.of("id", "145", "name", "Burbuja", "type", "water", "category", "special", "power", 40, "accuracy", 100),
+            Map.of("id", "39", "name", "Látigo", "type", "normal", "category", "status", "power", 0, "accuracy", 100,
+                "statusEffect", "defense-down")));
+
+        String body = gson.toJson(Map.of("team1", List.of(original), "team2", List.of(original)));
+        PokemonBattleServer.StartRequest request = gson.fromJson(body, PokemonBattleServer.StartRequest.class);
+
+        Pokemon decoded = request.team1.get(0);
+        assertEquals(original.getId(), decoded.getId());
+        assertEquals(original.getMovesetSize(), decoded.getMovesetSize());
+        for (int slot = 0; slot < original.getMovesetSize(); slot++) {
+            PokemonMove expected = original.getMovesetMove(slot);
+            PokemonMove actual = decoded.getMovesetMove(slot);
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getPower(), actual.getPower());
+            assertEquals(expected.getAccuracy(), actual.getAccuracy());
+        }
+    }
+}